@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+# Compares throughput and p99 latency of the default (platform-thread) profile against the
+# "virtual" profile under the same load from the loadgen module.
+#
+# Usage: scripts/compare-thread-modes.sh [players] [playthroughs] [-- extra Spring Boot args]
+# Example: scripts/compare-thread-modes.sh 400 10 -- --spring.datasource.url=jdbc:postgresql://db:5432/escape
+#
+# Both runs start from the same jar and the same database, with SQL logging off. Extra arguments
+# are passed to both runs, e.g. to pin the pool size so only the threading model differs. Players
+# do not pause between requests, and each run starts with an unmeasured warm-up pass.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+PLAYERS=${1:-200}
+PLAYTHROUGHS=${2:-5}
+WARMUP_PLAYTHROUGHS=${WARMUP_PLAYTHROUGHS:-1}
+PORT=${PORT:-8080}
+shift $(( $# > 2 ? 2 : $# ))
+[ "${1:-}" = "--" ] && shift
+EXTRA_ARGS=("$@")
+
+(cd .. && mvn -B -q -pl backend,loadgen -am package -DskipTests)
+JAR=$(ls target/backend-*-exec.jar | head -n 1)
+LOADGEN=../loadgen/target/loadgen.jar
+
+run() {
+  local label=$1 profile=$2
+  java -jar "$JAR" --server.port="$PORT" --spring.profiles.active="$profile" \
+    --spring.jpa.show-sql=false --logging.level.root=WARN "${EXTRA_ARGS[@]}" > "target/compare-$label.log" 2>&1 &
+  local pid=$!
+  trap "kill $pid 2>/dev/null || true" EXIT
+
+  local load=(--base-url="http://localhost:$PORT/api" --players="$PLAYERS" --think-time-ms=0)
+  java -jar "$LOADGEN" "${load[@]}" --playthroughs="$WARMUP_PLAYTHROUGHS" \
+    --output-dir="target/compare-$label-warmup" > /dev/null
+  echo "== $label"
+  java -jar "$LOADGEN" "${load[@]}" --playthroughs="$PLAYTHROUGHS" --output-dir="target/compare-$label"
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  trap - EXIT
+}
+
+run platform default
+run virtual virtual
@@ -1,43 +1,61 @@
 package com.escaperoom.backend.controller;
 
 import com.escaperoom.backend.dto.CreateUserRequest;
+import com.escaperoom.backend.dto.KeysetPageResponse;
 import com.escaperoom.backend.dto.LoginRequest;
 import com.escaperoom.backend.dto.UserResponse;
 import com.escaperoom.backend.model.User;
+import com.escaperoom.backend.service.SessionTokens;
 import com.escaperoom.backend.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/auth")
-@CrossOrigin(origins = "http://localhost:5173")
+@CrossOrigin(origins = "http://localhost:5173", exposedHeaders = AuthController.TOKEN_HEADER)
 @Tag(name = "Authentication", description = "Endpoints for user authentication")
 public class AuthController {
+
+    // Carries a signed session token on login and account creation; send it back as "Authorization: Bearer <token>"
+    public static final String TOKEN_HEADER = "X-Auth-Token";
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final SessionTokens sessionTokens;
 
     @Autowired
-    public AuthController(UserService userService) {
+    public AuthController(UserService userService, ObjectMapper objectMapper, SessionTokens sessionTokens) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.sessionTokens = sessionTokens;
     }
 
     @Operation(
             summary = "Authenticate user",
-            description = "Validates user credentials and returns true if authentication succeeds, false otherwise"
+            description = "Validates user credentials and returns true if authentication succeeds, false otherwise. "
+                    + "On success the " + TOKEN_HEADER + " header carries a session token."
     )
     @ApiResponse(
             responseCode = "200",
@@ -46,29 +64,57 @@ public class AuthController {
     )
     @PostMapping("/")
     public ResponseEntity<Boolean> authenticateUser(@RequestBody LoginRequest request) {
-        boolean valid = userService.verifyCredentials(request.getEmail(), request.getPassword());
-        return ResponseEntity.ok(valid);
+        return userService.authenticate(request.getEmail(), request.getPassword())
+                .map(user -> ResponseEntity.ok().header(TOKEN_HEADER, sessionTokens.issue(user.getId())).body(true))
+                .orElseGet(() -> ResponseEntity.ok(false));
     }
 
     @PostMapping("/create-account")
     public ResponseEntity<UUID> createUser(@RequestBody CreateUserRequest request) {
         User newUser = userService.createUser(request.getEmail(), request.getPassword());
-        return ResponseEntity.status(201).body(newUser.getId());
+        return ResponseEntity.status(201)
+                .header(TOKEN_HEADER, sessionTokens.issue(newUser.getId()))
+                .body(newUser.getId());
     }
 
     @GetMapping("/user")
     public ResponseEntity<UserResponse> getUserByEmail(@RequestParam String email) {
-        return userService.findByEmail(email)
-                .map(user -> ResponseEntity.ok(new UserResponse(user.getId(), user.getEmail())))
+        return userService.findIdentity(email)
+                .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @Operation(summary = "All users", description = "Every user as one JSON array, written as rows are read from a database cursor.")
     @GetMapping("/all-users")
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        List<UserResponse> users = userService.getAllUsers().stream()
-                .map(user -> new UserResponse(user.getId(), user.getEmail()))
-                .toList();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<StreamingResponseBody> getAllUsers() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                userService.forEachUser(user -> {
+                    try {
+                        json.writeObject(user);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @Operation(summary = "Page of users", description = "Up to `limit` users (at most 500) ordered by id, after the user `after`.")
+    @GetMapping("/all-users/page")
+    public ResponseEntity<KeysetPageResponse<UserResponse, UUID>> getUsersPage(@RequestParam(required = false) UUID after,
+                                                                              @RequestParam(defaultValue = "50") int limit) {
+        List<UserResponse> users = userService.getUsersAfter(after, limit);
+        UUID next = users.size() < Math.min(limit, UserService.MAX_PAGE_SIZE) ? null : users.get(users.size() - 1).getId();
+        return ResponseEntity.ok(new KeysetPageResponse<>(users, next));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleBadRequest() {
+        return ResponseEntity.badRequest().build();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.escaperoom.backend.controller;
+
+import com.escaperoom.backend.config.AuthTokenProperties;
+import com.escaperoom.backend.model.GameSession;
+import com.escaperoom.backend.service.UserService;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.UUID;
+
+/**
+ * Works out whose request it is from the session token principal, falling back to the raw {@code userId}
+ * parameter for clients without a token while {@code escaperoom.auth.require-token} is off.
+ */
+@Component
+class CurrentUser {
+
+    private final UserService userService;
+    private final AuthTokenProperties properties;
+
+    CurrentUser(UserService userService, AuthTokenProperties properties) {
+        this.userService = userService;
+        this.properties = properties;
+    }
+
+    /**
+     * The caller's user id, for reads: an unknown bare {@code userId} simply finds nothing.
+     */
+    UUID resolve(UUID principal, UUID requested) {
+        if (principal != null) {
+            if (requested != null && !requested.equals(principal)) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+            }
+            return principal;
+        }
+        if (requested == null || properties.isRequireToken()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        return requested;
+    }
+
+    /**
+     * The caller's user id, for writes that reference the user. A token is trusted as is; only a bare
+     * {@code userId} costs a lookup.
+     */
+    UUID resolveExisting(UUID principal, UUID requested) {
+        UUID userId = resolve(principal, requested);
+        if (principal == null && !userService.exists(userId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User not found");
+        }
+        return userId;
+    }
+
+    /**
+     * Whether a caller may act on a session: token holders only on their own, others (when allowed) on any.
+     */
+    boolean mayAccess(UUID principal, GameSession session) {
+        if (principal == null) {
+            return !properties.isRequireToken();
+        }
+        // The owner's id is on the session row, so this does not load the user
+        return principal.equals(session.getUser().getId());
+    }
+}
@@ -10,6 +10,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -27,16 +28,19 @@ import java.util.UUID;
 public class EscapeRunController {
 
     private final EscapeRunService escapeRunService;
+    private final CurrentUser currentUser;
 
-    public EscapeRunController(EscapeRunService escapeRunService) {
+    public EscapeRunController(EscapeRunService escapeRunService, CurrentUser currentUser) {
         this.escapeRunService = escapeRunService;
+        this.currentUser = currentUser;
     }
 
     @Operation(summary = "Record a completed run", description = "Persists a user's completed 6-question run.")
     @PostMapping
-    public ResponseEntity<EscapeRunResponse> submitRun(@Valid @RequestBody EscapeRunRequest request) {
+    public ResponseEntity<EscapeRunResponse> submitRun(@Valid @RequestBody EscapeRunRequest request,
+                                                       @AuthenticationPrincipal UUID principal) {
         EscapeRun run = escapeRunService.recordRun(
-                request.getUserId(),
+                currentUser.resolveExisting(principal, request.getUserId()),
                 request.getDifficulty(),
                 request.getQuestionIds(),
                 request.getTotalTimeMillis()
@@ -48,9 +52,10 @@ public class EscapeRunController {
 
     @Operation(summary = "Recall latest run", description = "Returns the most recent completed run for the given user and difficulty.")
     @GetMapping("/latest")
-    public ResponseEntity<EscapeRunResponse> latestRun(@RequestParam UUID userId,
-                                                       @RequestParam DifficultyLevel difficulty) {
-        return escapeRunService.latestRun(userId, difficulty)
+    public ResponseEntity<EscapeRunResponse> latestRun(@RequestParam(required = false) UUID userId,
+                                                       @RequestParam DifficultyLevel difficulty,
+                                                       @AuthenticationPrincipal UUID principal) {
+        return escapeRunService.latestRun(currentUser.resolve(principal, userId), difficulty)
                 .map(run -> ResponseEntity.ok(toResponse(run)))
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
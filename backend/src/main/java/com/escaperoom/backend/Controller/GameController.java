@@ -2,18 +2,25 @@ package com.escaperoom.backend.controller;
 
 import com.escaperoom.backend.dto.*;
 import com.escaperoom.backend.model.GameSession;
+import com.escaperoom.backend.model.GameStage;
+import com.escaperoom.backend.model.SessionFlag;
+import com.escaperoom.backend.service.GameActionPipeline;
+import com.escaperoom.backend.service.GameCommandService;
 import com.escaperoom.backend.service.GameSessionService;
-import com.escaperoom.backend.service.InspectionService;
-import com.escaperoom.backend.service.ItemUsageService;
-import com.escaperoom.backend.service.LockValidationService;
+import com.escaperoom.backend.service.LockAttemptLimiter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @RestController
@@ -22,27 +29,36 @@ import java.util.UUID;
 @Tag(name = "Game", description = "Endpoints for escape room game")
 public class GameController {
     
+    // Sent by clients on actions with the state version they already hold, to receive only what changed
+    public static final String STATE_VERSION_HEADER = "X-State-Version";
+    
     private final GameSessionService gameSessionService;
-    private final InspectionService inspectionService;
-    private final LockValidationService lockValidationService;
-    private final ItemUsageService itemUsageService;
+    private final GameActionPipeline gameActionPipeline;
+    private final GameCommandService gameCommandService;
+    private final LockAttemptLimiter lockAttemptLimiter;
+    private final CurrentUser currentUser;
     
     @Autowired
     public GameController(
             GameSessionService gameSessionService,
-            InspectionService inspectionService,
-            LockValidationService lockValidationService,
-            ItemUsageService itemUsageService) {
+            GameActionPipeline gameActionPipeline,
+            GameCommandService gameCommandService,
+            LockAttemptLimiter lockAttemptLimiter,
+            CurrentUser currentUser) {
         this.gameSessionService = gameSessionService;
-        this.inspectionService = inspectionService;
-        this.lockValidationService = lockValidationService;
-        this.itemUsageService = itemUsageService;
+        this.gameActionPipeline = gameActionPipeline;
+        this.gameCommandService = gameCommandService;
+        this.lockAttemptLimiter = lockAttemptLimiter;
+        this.currentUser = currentUser;
     }
     
+    // Every endpoint takes the user from the session token when there is one (the principal); the userId
+    // parameters are only needed by clients without a token
     @PostMapping("/session/start")
-    public ResponseEntity<GameStateDTO> startGameSession(@Valid @RequestBody StartGameSessionRequestDTO request) {
+    public ResponseEntity<GameStateDTO> startGameSession(@Valid @RequestBody StartGameSessionRequestDTO request,
+                                                         @AuthenticationPrincipal UUID principal) {
         try {
-            GameSession session = gameSessionService.startNewSession(request.getUserId());
+            GameSession session = gameSessionService.startNewSession(currentUser.resolveExisting(principal, request.getUserId()));
             GameStateDTO initialState = gameSessionService.convertToDTO(session);
             return ResponseEntity.ok(initialState);
         } catch (IllegalArgumentException e) {
@@ -53,208 +69,214 @@ public class GameController {
     @GetMapping("/session/{sessionId}")
     public ResponseEntity<GameStateDTO> getGameSession(
             @PathVariable Long sessionId,
-            @RequestParam UUID userId) {
-        return gameSessionService.getSession(sessionId, userId)
-                .map(session -> ResponseEntity.ok(gameSessionService.convertToDTO(session)))
+            @RequestParam(required = false) UUID userId,
+            @AuthenticationPrincipal UUID principal,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return gameSessionService.getSession(sessionId, currentUser.resolve(principal, userId))
+                .map(session -> stateResponse(session, ifNoneMatch))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
     
     @GetMapping("/session/latest")
-    public ResponseEntity<GameStateDTO> getLatestGameSession(@RequestParam UUID userId) {
-        return gameSessionService.getLatestSession(userId)
-                .map(session -> ResponseEntity.ok(gameSessionService.convertToDTO(session)))
+    public ResponseEntity<GameStateDTO> getLatestGameSession(
+            @RequestParam(required = false) UUID userId,
+            @AuthenticationPrincipal UUID principal,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return gameSessionService.getLatestSession(currentUser.resolve(principal, userId))
+                .map(session -> stateResponse(session, ifNoneMatch))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
     
+    // 304 without building the state when the client's copy is current
+    private ResponseEntity<GameStateDTO> stateResponse(GameSession session, String ifNoneMatch) {
+        String eTag = gameSessionService.eTag(session);
+        if (ifNoneMatch != null && (ifNoneMatch.equals(eTag) || ifNoneMatch.equals("W/" + eTag))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(gameSessionService.convertToDTO(session));
+    }
+    
     @PutMapping("/session/{sessionId}/state")
     public ResponseEntity<GameStateDTO> updateGameState(
             @PathVariable Long sessionId,
-            @RequestParam UUID userId,
+            @RequestParam(required = false) UUID userId,
+            @AuthenticationPrincipal UUID principal,
+            @RequestHeader(value = STATE_VERSION_HEADER, required = false) Long knownVersion,
             @Valid @RequestBody GameStateDTO gameState) {
-        return gameSessionService.getSession(sessionId, userId)
-                .map(session -> {
+        UUID owner = currentUser.resolve(principal, userId);
+        GameStage requestedStage = GameStage.fromName(gameState.getCurrentStage());
+        if (gameState.getCurrentStage() != null && requestedStage == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        return gameActionPipeline.execute(sessionId, session -> {
+                    if (!owner.equals(session.getUser().getId())) {
+                        return null;
+                    }
                     // Update session from DTO (only allow certain fields to be updated)
-                    if (gameState.getCurrentStage() != null) {
-                        session.setCurrentStage(gameState.getCurrentStage());
+                    if (requestedStage != null) {
+                        session.setStage(requestedStage);
                     }
                     if (gameState.getHasRod() != null) {
-                        session.setHasRod(gameState.getHasRod());
+                        session.set(SessionFlag.HAS_ROD, gameState.getHasRod());
                     }
                     if (gameState.getHasDeskKey() != null) {
-                        session.setHasDeskKey(gameState.getHasDeskKey());
+                        session.set(SessionFlag.HAS_DESK_KEY, gameState.getHasDeskKey());
                     }
                     if (gameState.getCellDrawerUnlocked() != null) {
-                        session.setCellDrawerUnlocked(gameState.getCellDrawerUnlocked());
+                        session.set(SessionFlag.CELL_DRAWER_UNLOCKED, gameState.getCellDrawerUnlocked());
                     }
                     if (gameState.getCellDoorUnlocked() != null) {
-                        session.setCellDoorUnlocked(gameState.getCellDoorUnlocked());
+                        session.set(SessionFlag.CELL_DOOR_UNLOCKED, gameState.getCellDoorUnlocked());
                     }
                     if (gameState.getDeskDrawerUnlocked() != null) {
-                        session.setDeskDrawerUnlocked(gameState.getDeskDrawerUnlocked());
+                        session.set(SessionFlag.DESK_DRAWER_UNLOCKED, gameState.getDeskDrawerUnlocked());
                     }
                     if (gameState.getFinalDoorUnlocked() != null) {
-                        session.setFinalDoorUnlocked(gameState.getFinalDoorUnlocked());
+                        session.set(SessionFlag.FINAL_DOOR_UNLOCKED, gameState.getFinalDoorUnlocked());
                     }
-                    GameSession updated = gameSessionService.updateSession(session);
-                    return ResponseEntity.ok(gameSessionService.convertToDTO(updated));
+                    return gameSessionService.convertToDTO(session, knownVersion);
                 })
+                .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
     
     @PostMapping("/inspect")
-    public ResponseEntity<InspectionResponseDTO> inspectScene(@Valid @RequestBody InspectionRequestDTO request) {
-        // For now, we get session by ID only. In production, validate userId from auth context
-        return gameSessionService.getSessionById(request.getGameSessionId())
-                .map(session -> {
-                    String inspectionText = inspectionService.getInspectionText(
+    public ResponseEntity<InspectionResponseDTO> inspectScene(
+            @Valid @RequestBody InspectionRequestDTO request,
+            @RequestHeader(value = STATE_VERSION_HEADER, required = false) Long knownVersion,
+            @AuthenticationPrincipal UUID principal,
+            Locale locale) {
+        return gameActionPipeline.execute(request.getGameSessionId(), session -> {
+                    if (!currentUser.mayAccess(principal, session)) {
+                        return null;
+                    }
+                    GameCommandResultDTO result = gameCommandService.inspect(
                             session, 
                             request.getStage(), 
-                            request.getInspectionArea()
+                            request.getInspectionArea(),
+                            locale
                     );
                     
-                    // If inspection might have triggered state changes (like acquiring rod)
-                    // We check and update state here
-                    if ("CELL".equals(request.getStage()) && session.getCellDrawerUnlocked() && !session.getHasRod()) {
-                        // Player should have rod available after drawer is unlocked and inspecting
-                        int count = gameSessionService.getInspectionCount(session, request.getStage(), request.getInspectionArea());
-                        if (count >= 5) {
-                            itemUsageService.acquireRod(session);
-                            // Refresh session
-                            session = gameSessionService.getSessionById(request.getGameSessionId())
-                                    .orElse(session);
-                        }
-                    }
-                    
-                    // Refresh session to get latest state after inspection count update
-                    session = gameSessionService.getSessionById(request.getGameSessionId())
-                            .orElse(session);
-                    
-                    GameStateDTO updatedState = gameSessionService.convertToDTO(session);
-                    
-                    InspectionResponseDTO response = InspectionResponseDTO.builder()
-                            .inspectionText(inspectionText)
-                            .updatedState(updatedState)
+                    return InspectionResponseDTO.builder()
+                            .inspectionText(result.getMessage())
+                            .updatedState(gameSessionService.convertToDTO(session, knownVersion))
                             .build();
-                    
-                    return ResponseEntity.ok(response);
                 })
+                .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
     
-    @PostMapping("/validate/cell-drawer")
-    public ResponseEntity<LockValidationResponseDTO> validateCellDrawer(@Valid @RequestBody LockValidationRequestDTO request) {
-        return validateLock("cell-drawer", request);
-    }
-    
-    @PostMapping("/validate/cell-door")
-    public ResponseEntity<LockValidationResponseDTO> validateCellDoor(@Valid @RequestBody LockValidationRequestDTO request) {
-        return validateLock("cell-door", request);
-    }
-    
-    @PostMapping("/validate/desk-drawer")
-    public ResponseEntity<LockValidationResponseDTO> validateDeskDrawer(@Valid @RequestBody LockValidationRequestDTO request) {
-        return validateLock("desk-drawer", request);
+    // One endpoint for every lock the room defines: /validate/cell-drawer, /validate/final-door, ...
+    @PostMapping("/validate/{lockType}")
+    public ResponseEntity<LockValidationResponseDTO> validateLock(
+            @PathVariable String lockType,
+            @Valid @RequestBody LockValidationRequestDTO request,
+            @RequestHeader(value = STATE_VERSION_HEADER, required = false) Long knownVersion,
+            @AuthenticationPrincipal UUID principal) {
+        if (!gameCommandService.isKnownLock(lockType)) {
+            return ResponseEntity.notFound().build();
+        }
+        // Throttled guesses are turned away before the session is loaded; tokens are taken once access is checked
+        if (!lockAttemptLimiter.mayAcquire(lockType, request.getGameSessionId())) {
+            return tooManyAttempts(lockType);
+        }
+        LockAttemptLimiter.Charges charges = lockAttemptLimiter.charges();
+        return gameActionPipeline.execute(request.getGameSessionId(), session -> {
+                    if (!currentUser.mayAccess(principal, session)) {
+                        return null;
+                    }
+                    if (!charges.allows(request, lockType, session)) {
+                        return tooManyAttempts(lockType);
+                    }
+                    GameCommandResultDTO result = gameCommandService.validateLock(session, lockType, request.getAnswer());
+                    
+                    return ResponseEntity.ok(LockValidationResponseDTO.builder()
+                            .correct(result.getSuccess())
+                            .message(result.getMessage())
+                            .updatedState(gameSessionService.convertToDTO(session, knownVersion))
+                            .build());
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
     
-    @PostMapping("/validate/final-door")
-    public ResponseEntity<LockValidationResponseDTO> validateFinalDoor(@Valid @RequestBody LockValidationRequestDTO request) {
-        return validateLock("final-door", request);
+    private ResponseEntity<LockValidationResponseDTO> tooManyAttempts(String lockType) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(lockAttemptLimiter.retryAfterSeconds(lockType)))
+                .build();
     }
     
-    private ResponseEntity<LockValidationResponseDTO> validateLock(String lockType, LockValidationRequestDTO request) {
-        // Note: In production, you should validate userId from session/authentication
-        // For now, we'll get session by ID only
-        return gameSessionService.getSessionById(request.getGameSessionId())
-                .map(session -> {
-                    boolean correct = false;
-                    String message;
-                    
-                    switch (lockType) {
-                        case "cell-drawer":
-                            correct = lockValidationService.validateCellDrawer(session, request.getAnswer());
-                            break;
-                        case "cell-door":
-                            correct = lockValidationService.validateCellDoor(session, request.getAnswer());
-                            break;
-                        case "desk-drawer":
-                            correct = lockValidationService.validateDeskDrawer(session, request.getAnswer());
-                            break;
-                        case "final-door":
-                            correct = lockValidationService.validateFinalDoor(session, request.getAnswer());
-                            break;
-                    }
-                    
-                    // Refresh session to get latest state
-                    session = gameSessionService.getSessionById(request.getGameSessionId())
-                            .orElse(session);
-                    
-                    GameStateDTO updatedState = gameSessionService.convertToDTO(session);
-                    
-                    if (correct) {
-                        message = "Correct!";
-                    } else {
-                        message = "Incorrect. Try again.";
+    @PostMapping("/use-item")
+    public ResponseEntity<InspectionResponseDTO> useItem(
+            @Valid @RequestBody UseItemRequestDTO request,
+            @RequestHeader(value = STATE_VERSION_HEADER, required = false) Long knownVersion,
+            @AuthenticationPrincipal UUID principal) {
+        return gameActionPipeline.execute(request.getGameSessionId(), session -> {
+                    if (!currentUser.mayAccess(principal, session)) {
+                        return null;
                     }
+                    GameCommandResultDTO result = gameCommandService.useItem(session, request.getItem(), request.getTarget());
                     
-                    LockValidationResponseDTO response = LockValidationResponseDTO.builder()
-                            .correct(correct)
-                            .message(message)
-                            .updatedState(updatedState)
+                    return InspectionResponseDTO.builder()
+                            .inspectionText(result.getMessage())
+                            .updatedState(gameSessionService.convertToDTO(session, knownVersion))
                             .build();
-                    
-                    return ResponseEntity.ok(response);
                 })
+                .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
     
-    @PostMapping("/use-item")
-    public ResponseEntity<InspectionResponseDTO> useItem(@Valid @RequestBody UseItemRequestDTO request) {
-        return gameSessionService.getSessionById(request.getGameSessionId())
-                .map(session -> {
-                    boolean success = itemUsageService.useItem(session, request.getItem(), request.getTarget());
-                    
-                    // Refresh session
-                    session = gameSessionService.getSessionById(request.getGameSessionId())
-                            .orElse(session);
-                    
-                    GameStateDTO updatedState = gameSessionService.convertToDTO(session);
-                    
-                    String message = success 
-                            ? "Item used successfully." 
-                            : "Cannot use item in this context.";
+    @PostMapping("/session/{sessionId}/actions")
+    public ResponseEntity<GameActionsResponseDTO> applyActions(
+            @PathVariable Long sessionId,
+            @Valid @RequestBody GameActionsRequestDTO request,
+            @RequestHeader(value = STATE_VERSION_HEADER, required = false) Long knownVersion,
+            @AuthenticationPrincipal UUID principal,
+            Locale locale) {
+        // All commands run in order against one loaded session, in one transaction
+        LockAttemptLimiter.Charges charges = gameCommandService.charges();
+        return gameActionPipeline.execute(sessionId, session -> {
+                    if (!currentUser.mayAccess(principal, session)) {
+                        return null;
+                    }
+                    List<GameCommandResultDTO> results = new ArrayList<>(request.getCommands().size());
+                    for (GameCommandDTO command : request.getCommands()) {
+                        results.add(gameCommandService.apply(session, command, locale, charges));
+                    }
                     
-                    InspectionResponseDTO response = InspectionResponseDTO.builder()
-                            .inspectionText(message)
-                            .updatedState(updatedState)
+                    return GameActionsResponseDTO.builder()
+                            .results(results)
+                            .finalState(gameSessionService.convertToDTO(session, knownVersion))
                             .build();
-                    
-                    return ResponseEntity.ok(response);
                 })
+                .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
     
     @PostMapping("/transition")
     public ResponseEntity<GameStateDTO> transitionStage(
             @RequestParam Long gameSessionId,
-            @RequestParam String targetStage) {
-        Optional<GameSession> sessionOpt = gameSessionService.getSessionById(gameSessionId);
-        
-        if (sessionOpt.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        GameSession session = sessionOpt.get();
-        
-        // Validate transition prerequisites
-        if ("DESK".equals(targetStage) && !session.getCellDoorUnlocked()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
-        }
-        if ("ESCAPED".equals(targetStage) && !session.getFinalDoorUnlocked()) {
+            @RequestParam String targetStage,
+            @RequestHeader(value = STATE_VERSION_HEADER, required = false) Long knownVersion,
+            @AuthenticationPrincipal UUID principal) {
+        GameStage target = GameStage.fromName(targetStage);
+        if (target == null) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
         
-        session.setCurrentStage(targetStage);
-        GameSession updated = gameSessionService.updateSession(session);
-        return ResponseEntity.ok(gameSessionService.convertToDTO(updated));
+        return gameActionPipeline.execute(gameSessionId, session -> {
+                    if (!currentUser.mayAccess(principal, session)) {
+                        return null;
+                    }
+                    return gameSessionService.transitionTo(session, target)
+                            ? ResponseEntity.ok(gameSessionService.convertToDTO(session, knownVersion))
+                            : ResponseEntity.status(HttpStatus.BAD_REQUEST).<GameStateDTO>build();
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    // The action was retried and still lost the race against other requests on the same session
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleConcurrentUpdate() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
     }
 }
@@ -0,0 +1,180 @@
+package com.escaperoom.backend.controller;
+
+import com.escaperoom.backend.dto.GameCommandDTO;
+import com.escaperoom.backend.dto.GameCommandResultDTO;
+import com.escaperoom.backend.dto.GameSocketMessageDTO;
+import com.escaperoom.backend.dto.GameStateDTO;
+import com.escaperoom.backend.model.GameSession;
+import com.escaperoom.backend.service.GameActionPipeline;
+import com.escaperoom.backend.service.GameCommandService;
+import com.escaperoom.backend.service.GameSessionService;
+import com.escaperoom.backend.service.GameSessionStore;
+import com.escaperoom.backend.service.LockAttemptLimiter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Gameplay channel bound to one game session: {@code /ws/game/{sessionId}?token=...} (or {@code ?userId=...}
+ * for clients without a session token).
+ *
+ * The session and its owner are resolved once during the handshake; afterwards every text frame is a
+ * {@link GameCommandDTO} that is applied through the {@link GameActionPipeline}, and the result is pushed
+ * back together with the new state. Once the client has been sent a state, later replies carry only the
+ * fields that changed since. Inspection texts are in the language of the handshake's {@code Accept-Language}.
+ * The connection keeps the session between frames, so frames are not loaded from the database: pinned in the
+ * write-behind store when that is enabled, otherwise as the connection's own copy.
+ */
+@Component
+public class GameWebSocketHandler extends TextWebSocketHandler implements HandshakeInterceptor {
+
+    private static final String SESSION_ID_ATTRIBUTE = "gameSessionId";
+    private static final String STATE_VERSION_ATTRIBUTE = "stateVersion";
+    private static final String LOCALE_ATTRIBUTE = "locale";
+    private static final String HELD_SESSION_ATTRIBUTE = "heldSession";
+
+    private final GameSessionService gameSessionService;
+    private final GameSessionStore gameSessionStore;
+    private final GameActionPipeline gameActionPipeline;
+    private final GameCommandService gameCommandService;
+    private final ObjectMapper objectMapper;
+    private final CurrentUser currentUser;
+
+    public GameWebSocketHandler(GameSessionService gameSessionService,
+                                GameSessionStore gameSessionStore,
+                                GameActionPipeline gameActionPipeline,
+                                GameCommandService gameCommandService,
+                                ObjectMapper objectMapper,
+                                CurrentUser currentUser) {
+        this.gameSessionService = gameSessionService;
+        this.gameSessionStore = gameSessionStore;
+        this.gameActionPipeline = gameActionPipeline;
+        this.gameCommandService = gameCommandService;
+        this.objectMapper = objectMapper;
+        this.currentUser = currentUser;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request,
+                                   ServerHttpResponse response,
+                                   WebSocketHandler wsHandler,
+                                   Map<String, Object> attributes) {
+        try {
+            List<String> segments = UriComponentsBuilder.fromUri(request.getURI()).build().getPathSegments();
+            Long sessionId = Long.valueOf(segments.get(segments.size() - 1));
+            String userParam = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("userId");
+            UUID userId = currentUser.resolve(principal(request), userParam != null ? UUID.fromString(userParam) : null);
+
+            if (gameSessionService.getSession(sessionId, userId).isEmpty()) {
+                response.setStatusCode(HttpStatus.NOT_FOUND);
+                return false;
+            }
+            attributes.put(SESSION_ID_ATTRIBUTE, sessionId);
+            List<Locale> locales = request.getHeaders().getAcceptLanguageAsLocales();
+            if (!locales.isEmpty()) {
+                attributes.put(LOCALE_ATTRIBUTE, locales.get(0));
+            }
+            return true;
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(HttpStatus.BAD_REQUEST);
+            return false;
+        } catch (ResponseStatusException e) {
+            response.setStatusCode(e.getStatusCode());
+            return false;
+        }
+    }
+
+    // Set by SessionTokenFilter when the handshake carried a valid token
+    private static UUID principal(ServerHttpRequest request) {
+        return request.getPrincipal() instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof UUID userId ? userId : null;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request,
+                               ServerHttpResponse response,
+                               WebSocketHandler wsHandler,
+                               Exception exception) {
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession socket) {
+        socket.getAttributes().put(HELD_SESSION_ATTRIBUTE, new AtomicReference<GameSession>());
+        gameSessionStore.pin(sessionId(socket));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession socket, TextMessage message) throws IOException {
+        GameCommandDTO command = parse(message.getPayload());
+        if (command == null) {
+            send(socket, GameSocketMessageDTO.builder().error("Malformed command.").build());
+            return;
+        }
+
+        Long knownVersion = (Long) socket.getAttributes().get(STATE_VERSION_ATTRIBUTE);
+        Locale locale = (Locale) socket.getAttributes().get(LOCALE_ATTRIBUTE);
+        LockAttemptLimiter.Charges charges = gameCommandService.charges();
+        GameSocketMessageDTO reply;
+        try {
+            reply = gameActionPipeline.execute(sessionId(socket), heldSession(socket), session -> {
+                        GameCommandResultDTO result = gameCommandService.apply(session, command, locale, charges);
+                        GameStateDTO state = gameSessionService.convertToDTO(session, knownVersion);
+                        return GameSocketMessageDTO.builder().result(result).state(state).build();
+                    })
+                    .orElseGet(() -> GameSocketMessageDTO.builder().error("Game session not found.").build());
+            if (reply.getState() != null) {
+                socket.getAttributes().put(STATE_VERSION_ATTRIBUTE, reply.getState().getStateVersion());
+            }
+        } catch (OptimisticLockingFailureException e) {
+            reply = GameSocketMessageDTO.builder().error("Game session was changed concurrently, try again.").build();
+        }
+        send(socket, reply);
+    }
+
+    // Null for a malformed frame, and for a "null" one, which parses without error
+    private GameCommandDTO parse(String payload) {
+        try {
+            return objectMapper.readValue(payload, GameCommandDTO.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession socket, CloseStatus status) {
+        gameSessionStore.unpin(sessionId(socket));
+    }
+
+    private Long sessionId(WebSocketSession socket) {
+        return (Long) socket.getAttributes().get(SESSION_ID_ATTRIBUTE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private AtomicReference<GameSession> heldSession(WebSocketSession socket) {
+        return (AtomicReference<GameSession>) socket.getAttributes().get(HELD_SESSION_ATTRIBUTE);
+    }
+
+    private void send(WebSocketSession socket, GameSocketMessageDTO payload) throws IOException {
+        socket.sendMessage(new TextMessage(objectMapper.writeValueAsString(payload)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.escaperoom.backend.controller;
+
+import com.escaperoom.backend.dto.LeaderboardEntryDTO;
+import com.escaperoom.backend.dto.LeaderboardResponse;
+import com.escaperoom.backend.model.DifficultyLevel;
+import com.escaperoom.backend.service.Leaderboard;
+import com.escaperoom.backend.service.LeaderboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@Tag(name = "Leaderboard", description = "Rankings of the users' best times per difficulty")
+@CrossOrigin(origins = "http://localhost:5173")
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+
+    public LeaderboardController(LeaderboardService leaderboardService) {
+        this.leaderboardService = leaderboardService;
+    }
+
+    @Operation(summary = "Top times", description = "The fastest users for a difficulty, at most 100.")
+    @GetMapping("/{difficulty}")
+    public ResponseEntity<LeaderboardResponse> top(@PathVariable DifficultyLevel difficulty,
+                                                   @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(toResponse(difficulty, leaderboardService.top(difficulty, limit)));
+    }
+
+    @Operation(summary = "User rank", description = "A user's rank and best time for a difficulty.")
+    @GetMapping("/{difficulty}/users/{userId}")
+    public ResponseEntity<LeaderboardEntryDTO> rank(@PathVariable DifficultyLevel difficulty,
+                                                    @PathVariable UUID userId) {
+        return leaderboardService.entry(difficulty, userId)
+                .map(entry -> ResponseEntity.ok(toDTO(entry)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    @Operation(summary = "Times around a user", description = "A user's entry with up to `radius` entries above and below.")
+    @GetMapping("/{difficulty}/users/{userId}/around")
+    public ResponseEntity<LeaderboardResponse> around(@PathVariable DifficultyLevel difficulty,
+                                                      @PathVariable UUID userId,
+                                                      @RequestParam(defaultValue = "5") int radius) {
+        List<Leaderboard.Entry> entries = leaderboardService.around(difficulty, userId, radius);
+        if (entries.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return ResponseEntity.ok(toResponse(difficulty, entries));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleBadRequest() {
+        return ResponseEntity.badRequest().build();
+    }
+
+    private LeaderboardResponse toResponse(DifficultyLevel difficulty, List<Leaderboard.Entry> entries) {
+        return new LeaderboardResponse(
+                difficulty,
+                leaderboardService.size(difficulty),
+                entries.stream().map(this::toDTO).toList()
+        );
+    }
+
+    private LeaderboardEntryDTO toDTO(Leaderboard.Entry entry) {
+        return new LeaderboardEntryDTO(
+                entry.rank(),
+                entry.userId(),
+                entry.timeMillis(),
+                Instant.ofEpochMilli(entry.achievedAtMillis())
+        );
+    }
+}
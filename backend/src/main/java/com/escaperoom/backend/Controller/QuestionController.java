@@ -1,14 +1,22 @@
 package com.escaperoom.backend.controller;
 
+import com.escaperoom.backend.dto.KeysetPageResponse;
+import com.escaperoom.backend.dto.QuestionImportResponse;
 import com.escaperoom.backend.dto.QuestionRequest;
+import com.escaperoom.backend.model.DifficultyLevel;
+import com.escaperoom.backend.model.EscapeRun;
 import com.escaperoom.backend.model.Question;
+import com.escaperoom.backend.service.QuestionImportService;
 import com.escaperoom.backend.service.QuestionService;
+import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -17,9 +25,11 @@ import java.util.List;
 public class QuestionController {
 
     private final QuestionService questionService;
+    private final QuestionImportService questionImportService;
 
-    public QuestionController(QuestionService questionService) {
+    public QuestionController(QuestionService questionService, QuestionImportService questionImportService) {
         this.questionService = questionService;
+        this.questionImportService = questionImportService;
     }
 
     @GetMapping("/questions")
@@ -27,12 +37,44 @@ public class QuestionController {
         return ResponseEntity.ok(questionService.getAllQuestions());
     }
 
+    @Operation(summary = "Page of questions", description = "Up to `limit` questions (at most 500) ordered by id, after the question `after`.")
+    @GetMapping("/questions/page")
+    public ResponseEntity<KeysetPageResponse<Question, Long>> getQuestionsPage(@RequestParam(required = false) Long after,
+                                                                               @RequestParam(defaultValue = "50") int limit) {
+        List<Question> questions = questionService.getQuestionsAfter(after, limit);
+        Long next = questions.size() < Math.min(limit, QuestionService.MAX_PAGE_SIZE) ? null : questions.get(questions.size() - 1).getId();
+        return ResponseEntity.ok(new KeysetPageResponse<>(questions, next));
+    }
+
+    @Operation(summary = "Deal questions", description = "`count` distinct questions of one difficulty, in catalog order. "
+            + "The same `seed` deals the same questions while the catalog is unchanged.")
+    @GetMapping("/deal")
+    public ResponseEntity<List<Question>> dealQuestions(@RequestParam DifficultyLevel difficulty,
+                                                        @RequestParam(defaultValue = "" + EscapeRun.QUESTION_COUNT) int count,
+                                                        @RequestParam(required = false) Long seed) {
+        return ResponseEntity.ok(questionService.dealQuestions(difficulty, count, seed));
+    }
+
     @PostMapping("/add-question")
     public ResponseEntity<Long> addQuestion(@Valid @RequestBody QuestionRequest questionRequest) {
         Question question = questionService.addQuestion(questionRequest);
         return ResponseEntity.status(201).body(question.getId());
     }
 
+    @Operation(summary = "Import questions", description = "Streams a JSON array of questions into the catalog. "
+            + "Invalid rows are skipped and reported by position; the rest are saved.")
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<QuestionImportResponse> importQuestionsJson(InputStream body) {
+        return ResponseEntity.ok(questionImportService.importJson(body));
+    }
+
+    @Operation(summary = "Import questions from CSV", description = "Same as the JSON import, for a CSV file whose header "
+            + "names the columns questionText, answer, hint (optional), orderNumber and difficulty.")
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<QuestionImportResponse> importQuestionsCsv(InputStream body) {
+        return ResponseEntity.ok(questionImportService.importCsv(body));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Question> getQuestionById(@PathVariable Long id) {
         Question question = questionService.getQuestionById(id);
@@ -57,4 +99,9 @@ public class QuestionController {
         }
     }
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleBadRequest() {
+        return ResponseEntity.badRequest().build();
+    }
+
 }
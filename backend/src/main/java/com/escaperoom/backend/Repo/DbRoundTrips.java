@@ -0,0 +1,59 @@
+package com.escaperoom.backend.repo;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, split into reads and writes.
+ *
+ * With {@code escaperoom.diagnostics.db-round-trip-headers} on, the counters are reset at the start of every
+ * web request and reported back in the {@code X-Db-Reads} / {@code X-Db-Writes} response headers, so callers
+ * (and tests) can check how many database round trips an endpoint really costs.
+ */
+public class DbRoundTrips implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNTS = ThreadLocal.withInitial(() -> new int[2]);
+    private static final int READS = 0;
+    private static final int WRITES = 1;
+
+    public static void reset() {
+        int[] counts = COUNTS.get();
+        counts[READS] = 0;
+        counts[WRITES] = 0;
+    }
+
+    // Credits statements that ran on another thread on this thread's behalf
+    public static void add(int reads, int writes) {
+        int[] counts = COUNTS.get();
+        counts[READS] += reads;
+        counts[WRITES] += writes;
+    }
+
+    public static int reads() {
+        return COUNTS.get()[READS];
+    }
+
+    public static int writes() {
+        return COUNTS.get()[WRITES];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        COUNTS.get()[isRead(sql) ? READS : WRITES]++;
+        return sql;
+    }
+
+    private static boolean isRead(String sql) {
+        int start = 0;
+        while (start < sql.length()) {
+            if (Character.isWhitespace(sql.charAt(start))) {
+                start++;
+            } else if (sql.startsWith("/*", start)) {
+                int end = sql.indexOf("*/", start + 2);
+                start = end < 0 ? sql.length() : end + 2;
+            } else {
+                break;
+            }
+        }
+        return sql.regionMatches(true, start, "select", 0, 6) || sql.regionMatches(true, start, "with", 0, 4);
+    }
+}
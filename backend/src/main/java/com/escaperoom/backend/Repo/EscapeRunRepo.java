@@ -3,12 +3,38 @@ package com.escaperoom.backend.repo;
 import com.escaperoom.backend.model.DifficultyLevel;
 import com.escaperoom.backend.model.EscapeRun;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface EscapeRunRepo extends JpaRepository<EscapeRun, Long> {
 
+    // Spelled out so the user id is read off escape_runs instead of through a join to users
+    @Query("""
+            select r from EscapeRun r
+            where r.user.id = :userId and r.difficulty = :difficulty
+            order by r.finishedAt desc
+            limit 1
+            """)
     Optional<EscapeRun> findFirstByUserIdAndDifficultyOrderByFinishedAtDesc(UUID userId, DifficultyLevel difficulty);
-}
 
+    // The runs that hold a user's best time per difficulty, unordered; ties come back as several rows
+    @Query("""
+            select r.user.id as userId, r.difficulty as difficulty,
+                   r.totalTimeMillis as totalTimeMillis, r.finishedAt as finishedAt
+            from EscapeRun r
+            where r.totalTimeMillis = (select min(b.totalTimeMillis) from EscapeRun b
+                                       where b.user = r.user and b.difficulty = r.difficulty)
+            """)
+    Stream<BestTime> streamBestTimes();
+
+    interface BestTime {
+        UUID getUserId();
+        DifficultyLevel getDifficulty();
+        long getTotalTimeMillis();
+        Instant getFinishedAt();
+    }
+}
@@ -1,10 +1,17 @@
 package com.escaperoom.backend.repo;
 
 import com.escaperoom.backend.model.GameSession;
+import com.escaperoom.backend.model.GameStage;
+import com.escaperoom.backend.model.InspectionCounters;
 import com.escaperoom.backend.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +20,20 @@ public interface GameSessionRepository extends JpaRepository<GameSession, Long>
     Optional<GameSession> findByIdAndUser(Long id, User user);
     List<GameSession> findByUserOrderByLastUpdatedDesc(User user);
     Optional<GameSession> findFirstByUserOrderByLastUpdatedDesc(User user);
+
+    @Query("select s.id from GameSession s where s.stage = :stage and s.lastUpdated < :cutoff order by s.lastUpdated, s.id")
+    List<Long> findIdsUpdatedBefore(GameStage stage, Instant cutoff, Limit limit);
+
+    // Writes back a session kept outside any persistence context without loading it; 0 if the row has moved on
+    @Modifying
+    @Query("update GameSession s set s.stage = :stage, s.stateFlags = :stateFlags, s.inspectionCounts = :inspectionCounts,"
+            + " s.stateVersion = :stateVersion, s.lastUpdated = :lastUpdated, s.lockVersion = s.lockVersion + 1"
+            + " where s.id = :id and s.lockVersion = :lockVersion")
+    int updateState(Long id, long lockVersion, GameStage stage, long stateFlags, InspectionCounters inspectionCounts,
+                    long stateVersion, Instant lastUpdated);
+
+    // Checks stage and age again, so a session played since it was selected survives
+    @Modifying
+    @Query("delete from GameSession s where s.id in :ids and s.stage = :stage and s.lastUpdated < :cutoff")
+    int deleteUpdatedBefore(Collection<Long> ids, GameStage stage, Instant cutoff);
 }
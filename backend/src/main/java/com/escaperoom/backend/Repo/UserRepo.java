@@ -1,13 +1,42 @@
 package com.escaperoom.backend.repo;
 
+import com.escaperoom.backend.dto.UserResponse;
 import com.escaperoom.backend.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepo extends JpaRepository<User, UUID> {
+
+    // Rows fetched per round trip while streaming; the driver holds no more than this at a time
+    String STREAM_FETCH_SIZE = "500";
+
     Optional<User> findByEmail(String email);
+
+    @Query("select new com.escaperoom.backend.dto.UserResponse(u.id, u.email) from User u where u.email = :email")
+    Optional<UserResponse> findIdentityByEmail(String email);
+
+    @Query("select new com.escaperoom.backend.dto.UserResponse(u.id, u.email) from User u where u.id = :id")
+    Optional<UserResponse> findIdentityById(UUID id);
+
+    // The list queries select id and email straight into the response, so no entity (or password hash) is loaded
+    @Query("select new com.escaperoom.backend.dto.UserResponse(u.id, u.email) from User u order by u.id")
+    List<UserResponse> findPage(Limit limit);
+
+    @Query("select new com.escaperoom.backend.dto.UserResponse(u.id, u.email) from User u where u.id > :after order by u.id")
+    List<UserResponse> findPageAfter(UUID after, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select new com.escaperoom.backend.dto.UserResponse(u.id, u.email) from User u order by u.id")
+    Stream<UserResponse> streamAll();
 }
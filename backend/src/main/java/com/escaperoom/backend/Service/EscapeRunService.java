@@ -5,7 +5,6 @@ import com.escaperoom.backend.model.EscapeRun;
 import com.escaperoom.backend.model.Question;
 import com.escaperoom.backend.model.User;
 import com.escaperoom.backend.repo.EscapeRunRepo;
-import com.escaperoom.backend.repo.QuestionRepo;
 import com.escaperoom.backend.repo.UserRepo;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
@@ -14,25 +13,25 @@ import org.springframework.util.CollectionUtils;
 import java.time.Instant;
 import java.util.EnumSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 @Service
 public class EscapeRunService {
 
-    private static final int EXPECTED_QUESTION_COUNT = 6;
-
     private final EscapeRunRepo escapeRunRepo;
     private final UserRepo userRepo;
-    private final QuestionRepo questionRepo;
+    private final QuestionCatalog questionCatalog;
+    private final LeaderboardService leaderboardService;
 
-    public EscapeRunService(EscapeRunRepo escapeRunRepo, UserRepo userRepo, QuestionRepo questionRepo) {
+    public EscapeRunService(EscapeRunRepo escapeRunRepo,
+                            UserRepo userRepo,
+                            QuestionCatalog questionCatalog,
+                            LeaderboardService leaderboardService) {
         this.escapeRunRepo = escapeRunRepo;
         this.userRepo = userRepo;
-        this.questionRepo = questionRepo;
+        this.questionCatalog = questionCatalog;
+        this.leaderboardService = leaderboardService;
     }
 
     @Transactional
@@ -46,25 +45,17 @@ public class EscapeRunService {
         }
         validateParameters(difficulty, questionIds, totalTimeMillis);
 
-        User user = userRepo.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found for id: " + userId));
+        // The controller has already established that the user exists
+        User user = userRepo.getReferenceById(userId);
 
         List<Long> orderedQuestionIds = List.copyOf(questionIds);
 
-        Map<Long, Question> questionById = questionRepo.findAllById(orderedQuestionIds).stream()
-                .collect(Collectors.toMap(Question::getId, Function.identity()));
-
-        if (questionById.size() != orderedQuestionIds.size()) {
-            throw new IllegalArgumentException("One or more question ids are invalid.");
-        }
-
-        boolean allMatchDifficulty = orderedQuestionIds.stream()
-                .map(questionById::get)
-                .map(Question::getDifficulty)
-                .allMatch(difficulty::equals);
-
-        if (!allMatchDifficulty) {
-            throw new IllegalArgumentException("All questions must match the submitted difficulty.");
+        for (Long questionId : orderedQuestionIds) {
+            Question question = questionCatalog.find(questionId)
+                    .orElseThrow(() -> new IllegalArgumentException("One or more question ids are invalid."));
+            if (question.getDifficulty() != difficulty) {
+                throw new IllegalArgumentException("All questions must match the submitted difficulty.");
+            }
         }
 
         EscapeRun run = EscapeRun.builder()
@@ -75,7 +66,9 @@ public class EscapeRunService {
                 .questionIds(orderedQuestionIds)
                 .build();
 
-        return escapeRunRepo.save(run);
+        EscapeRun saved = escapeRunRepo.save(run);
+        leaderboardService.record(userId, difficulty, totalTimeMillis, saved.getFinishedAt());
+        return saved;
     }
 
     public Optional<EscapeRun> latestRun(UUID userId, DifficultyLevel difficulty) {
@@ -94,9 +87,9 @@ public class EscapeRunService {
         if (CollectionUtils.isEmpty(questionIds)) {
             throw new IllegalArgumentException("Question ids must be provided.");
         }
-        if (questionIds.size() != EXPECTED_QUESTION_COUNT) {
+        if (questionIds.size() != EscapeRun.QUESTION_COUNT) {
             throw new IllegalArgumentException(
-                    "A completed run must include exactly " + EXPECTED_QUESTION_COUNT + " question ids."
+                    "A completed run must include exactly " + EscapeRun.QUESTION_COUNT + " question ids."
             );
         }
         if (questionIds.stream().distinct().count() != questionIds.size()) {
@@ -0,0 +1,12 @@
+package com.escaperoom.backend.service;
+
+import com.escaperoom.backend.model.GameSession;
+
+/**
+ * A single game action run by {@link GameActionPipeline} against an already loaded session.
+ * The action mutates the session in place and builds its response from it; it must not load or save sessions itself.
+ */
+@FunctionalInterface
+public interface GameAction<R> {
+    R apply(GameSession session);
+}
@@ -0,0 +1,168 @@
+package com.escaperoom.backend.service;
+
+import com.escaperoom.backend.model.GameSession;
+import com.escaperoom.backend.repo.GameSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs game actions with exactly one session load and at most one write.
+ *
+ * Each call opens one transaction, loads the session once (from the write-behind store when it is
+ * enabled), applies the action to the in-hand entity and lets the action build its response from it.
+ * The session is written once on commit: by Hibernate's dirty check for a managed entity, or by
+ * marking it dirty in the write-behind store.
+ *
+ * The state before the action is kept as the session's baseline, so the state version is bumped only
+ * when the action changed something and responses can be sent as deltas against it. Actions that change
+ * nothing (a wrong answer, picking up the rod twice) cause no write at all.
+ *
+ * Sessions are optimistically locked, so a concurrent request on the same session (double click, second
+ * tab) fails its commit instead of overwriting the other one. The whole action is then re-run on a fresh
+ * load, up to {@code escaperoom.game-actions.max-attempts} times; actions must therefore have no effects
+ * outside the session and their response.
+ *
+ * Callers that act on one session many times, like the game socket, can keep it between actions with
+ * {@link #execute(Long, AtomicReference, GameAction)} and skip the load.
+ *
+ * With {@link SessionMailboxes} enabled, actions are instead queued per session and applied one at a time
+ * on that session's virtual thread, so they no longer race each other at all.
+ */
+@Service
+public class GameActionPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(GameActionPipeline.class);
+
+    private final GameSessionRepository gameSessionRepository;
+    private final GameSessionStore gameSessionStore;
+    private final SessionMailboxes sessionMailboxes;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+
+    public GameActionPipeline(GameSessionRepository gameSessionRepository,
+                              GameSessionStore gameSessionStore,
+                              SessionMailboxes sessionMailboxes,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${escaperoom.game-actions.max-attempts:3}") int maxAttempts) {
+        this.gameSessionRepository = gameSessionRepository;
+        this.gameSessionStore = gameSessionStore;
+        this.sessionMailboxes = sessionMailboxes;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    public <R> Optional<R> execute(Long sessionId, GameAction<R> action) {
+        if (sessionId == null) {
+            return Optional.empty();
+        }
+        return run(sessionId, () -> executeOnce(sessionId, action));
+    }
+
+    /**
+     * Like {@link #execute(Long, GameAction)}, for a caller that keeps the session in {@code held} between
+     * actions. With the write-behind store the store's instance is used as usual. Otherwise {@code held} keeps a
+     * detached copy: it is loaded on the first action only, and changes are written back with one version-checked
+     * UPDATE. If another request changed the row in between, the copy is dropped and the action re-run on a fresh
+     * load.
+     */
+    public <R> Optional<R> execute(Long sessionId, AtomicReference<GameSession> held, GameAction<R> action) {
+        if (sessionId == null) {
+            return Optional.empty();
+        }
+        if (gameSessionStore.isEnabled()) {
+            return execute(sessionId, action);
+        }
+        return run(sessionId, () -> executeHeld(sessionId, held, action));
+    }
+
+    private <R> Optional<R> run(Long sessionId, Supplier<Optional<R>> once) {
+        if (sessionMailboxes.isEnabled()) {
+            return sessionMailboxes.call(sessionId, () -> executeWithRetry(sessionId, once));
+        }
+        return executeWithRetry(sessionId, once);
+    }
+
+    private <R> Optional<R> executeWithRetry(Long sessionId, Supplier<Optional<R>> once) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return once.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Game session {} changed concurrently, retrying action (attempt {})", sessionId, attempt + 1);
+            }
+        }
+    }
+
+    private <R> Optional<R> executeOnce(Long sessionId, GameAction<R> action) {
+        if (gameSessionStore.isEnabled()) {
+            // No surrounding transaction: the store writes in transactions of its own, and must see each one
+            // flushed to pick up the version it produced
+            return gameSessionStore.get(sessionId).map(session -> applyInStore(session, action));
+        }
+        return transactionTemplate.execute(status ->
+                gameSessionRepository.findById(sessionId).map(session -> apply(session, action)));
+    }
+
+    private <R> Optional<R> executeHeld(Long sessionId, AtomicReference<GameSession> held, GameAction<R> action) {
+        // Taken out while in use, so a failed action or write leaves nothing half applied behind
+        GameSession session = held.getAndSet(null);
+        if (session == null) {
+            Optional<GameSession> loaded = gameSessionRepository.findById(sessionId);
+            if (loaded.isEmpty()) {
+                return Optional.empty();
+            }
+            session = loaded.get();
+        }
+        R result = apply(session, action);
+        if (session.changedSinceBaseline()) {
+            GameSession changed = session;
+            Instant now = Instant.now();
+            int updated = transactionTemplate.execute(status -> gameSessionRepository.updateState(
+                    changed.getId(), changed.getLockVersion(), changed.getStage(), changed.getStateFlags(),
+                    changed.getInspectionCounts(), changed.getStateVersion(), now));
+            if (updated == 0) {
+                throw new ObjectOptimisticLockingFailureException(GameSession.class, sessionId);
+            }
+            session.setLockVersion(session.getLockVersion() + 1);
+            session.setLastUpdated(now);
+        }
+        held.set(session);
+        return Optional.ofNullable(result);
+    }
+
+    private <R> R apply(GameSession session, GameAction<R> action) {
+        session.captureBaseline();
+        R result = action.apply(session);
+        session.syncStateVersion();
+        return result;
+    }
+
+    private <R> R applyInStore(GameSession session, GameAction<R> action) {
+        // The in-memory instance is shared between requests and the store's writes, so neither may interleave
+        ReentrantLock lock = gameSessionStore.lockFor(session.getId());
+        lock.lock();
+        try {
+            R result = apply(session, action);
+            if (session.changedSinceBaseline()) {
+                gameSessionStore.markDirty(session);
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.escaperoom.backend.service;
+
+import com.escaperoom.backend.dto.GameCommandDTO;
+import com.escaperoom.backend.dto.GameCommandResultDTO;
+import com.escaperoom.backend.model.GameSession;
+import com.escaperoom.backend.model.GameStage;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+
+/**
+ * Applies one game command to an in-hand session. Used by the single-action endpoints and the
+ * batched actions endpoint alike, always from inside a {@link GameActionPipeline} action.
+ * {@code locale} selects the language of inspection texts.
+ */
+@Service
+public class GameCommandService {
+
+    private final GameSessionService gameSessionService;
+    private final InspectionService inspectionService;
+    private final LockValidationService lockValidationService;
+    private final ItemUsageService itemUsageService;
+    private final LockAttemptLimiter lockAttemptLimiter;
+
+    public GameCommandService(GameSessionService gameSessionService,
+                              InspectionService inspectionService,
+                              LockValidationService lockValidationService,
+                              ItemUsageService itemUsageService,
+                              LockAttemptLimiter lockAttemptLimiter) {
+        this.gameSessionService = gameSessionService;
+        this.inspectionService = inspectionService;
+        this.lockValidationService = lockValidationService;
+        this.itemUsageService = itemUsageService;
+        this.lockAttemptLimiter = lockAttemptLimiter;
+    }
+
+    /**
+     * Starts charging the lock guesses of one request. Create it before the pipeline runs the commands and hand
+     * it to {@link #apply}, since a re-run action must not charge them again.
+     */
+    public LockAttemptLimiter.Charges charges() {
+        return lockAttemptLimiter.charges();
+    }
+
+    public GameCommandResultDTO apply(GameSession session, GameCommandDTO command, Locale locale,
+                                      LockAttemptLimiter.Charges charges) {
+        if (command.getType() == null) {
+            return result(null, false, "Unknown command.");
+        }
+        switch (command.getType()) {
+            case INSPECT:
+                return inspect(session, command.getStage(), command.getInspectionArea(), locale);
+            case VALIDATE_LOCK:
+                return attemptLock(session, command, charges);
+            case USE_ITEM:
+                return useItem(session, command.getItem(), command.getTarget());
+            case TRANSITION:
+                return transition(session, command.getTargetStage());
+            default:
+                return result(command.getType(), false, "Unknown command.");
+        }
+    }
+
+    public GameCommandResultDTO inspect(GameSession session, String stage, String area, Locale locale) {
+        String text = inspectionService.getInspectionText(session, stage, area, locale);
+        return result(GameCommandDTO.Type.INSPECT, true, text);
+    }
+
+    public boolean isKnownLock(String lockType) {
+        return lockType != null && lockValidationService.getLockName(lockType) != null;
+    }
+
+    // Charged only here, once the caller's access to the session has been checked; a rejected guess stops here
+    private GameCommandResultDTO attemptLock(GameSession session, GameCommandDTO command, LockAttemptLimiter.Charges charges) {
+        String lockType = command.getLockType();
+        if (isKnownLock(lockType) && !charges.allows(command, lockType, session)) {
+            return result(GameCommandDTO.Type.VALIDATE_LOCK, false, "Too many attempts. Wait a moment and try again.");
+        }
+        return validateLock(session, lockType, command.getAnswer());
+    }
+
+    public GameCommandResultDTO validateLock(GameSession session, String lockType, String answer) {
+        if (!isKnownLock(lockType)) {
+            return result(GameCommandDTO.Type.VALIDATE_LOCK, false, "Unknown lock.");
+        }
+        boolean correct = answer != null && lockValidationService.validate(lockType, session, answer);
+        return result(GameCommandDTO.Type.VALIDATE_LOCK, correct, correct ? "Correct!" : "Incorrect. Try again.");
+    }
+
+    public GameCommandResultDTO useItem(GameSession session, String item, String target) {
+        boolean success = itemUsageService.useItem(session, item, target);
+        return result(GameCommandDTO.Type.USE_ITEM, success,
+                success ? "Item used successfully." : "Cannot use item in this context.");
+    }
+
+    public GameCommandResultDTO transition(GameSession session, String targetStage) {
+        GameStage target = GameStage.fromName(targetStage);
+        if (target == null) {
+            return result(GameCommandDTO.Type.TRANSITION, false, "Unknown stage.");
+        }
+        boolean moved = gameSessionService.transitionTo(session, target);
+        return result(GameCommandDTO.Type.TRANSITION, moved,
+                moved ? "Moved to " + target.name() + "." : "Cannot move to " + target.name() + " yet.");
+    }
+
+    private GameCommandResultDTO result(GameCommandDTO.Type type, boolean success, String message) {
+        return GameCommandResultDTO.builder()
+                .type(type)
+                .success(success)
+                .message(message)
+                .build();
+    }
+}
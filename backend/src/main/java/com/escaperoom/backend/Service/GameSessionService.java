@@ -2,16 +2,17 @@ package com.escaperoom.backend.service;
 
 import com.escaperoom.backend.dto.GameStateDTO;
 import com.escaperoom.backend.model.GameSession;
+import com.escaperoom.backend.model.GameStage;
+import com.escaperoom.backend.model.GameStateSnapshot;
+import com.escaperoom.backend.model.InspectionCounters;
+import com.escaperoom.backend.model.SessionFlag;
 import com.escaperoom.backend.model.User;
 import com.escaperoom.backend.repo.GameSessionRepository;
 import com.escaperoom.backend.repo.UserRepo;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -21,109 +22,150 @@ public class GameSessionService {
     
     private final GameSessionRepository gameSessionRepository;
     private final UserRepo userRepo;
-    private final ObjectMapper objectMapper;
+    private final GameSessionStore gameSessionStore;
+    private final RoomEngine roomEngine;
     
     @Autowired
-    public GameSessionService(GameSessionRepository gameSessionRepository, UserRepo userRepo) {
+    public GameSessionService(GameSessionRepository gameSessionRepository,
+                              UserRepo userRepo,
+                              GameSessionStore gameSessionStore,
+                              RoomEngine roomEngine) {
         this.gameSessionRepository = gameSessionRepository;
         this.userRepo = userRepo;
-        this.objectMapper = new ObjectMapper();
+        this.gameSessionStore = gameSessionStore;
+        this.roomEngine = roomEngine;
     }
     
+    // Callers pass a user id that is already known to exist (see CurrentUser), so only a reference is needed
     @Transactional
     public GameSession startNewSession(UUID userId) {
-        User user = userRepo.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        User user = userRepo.getReferenceById(userId);
         
         GameSession session = GameSession.builder()
                 .user(user)
-                .currentStage("CELL")
-                .hasRod(false)
-                .hasDeskKey(false)
-                .hasMetalPiece(false)
-                .cellDrawerUnlocked(false)
-                .cellDoorUnlocked(false)
-                .deskDrawerUnlocked(false)
-                .finalDoorUnlocked(false)
-                .inspectionCounts("{}")
+                .stage(GameStage.CELL)
+                .stateFlags(0L)
+                .inspectionCounts(new InspectionCounters())
                 .build();
         
-        return gameSessionRepository.save(session);
+        GameSession saved = gameSessionRepository.save(session);
+        return gameSessionStore.isEnabled() ? gameSessionStore.resolve(saved) : saved;
     }
     
     public Optional<GameSession> getSession(Long sessionId, UUID userId) {
         if (userId != null) {
-            User user = userRepo.findById(userId)
-                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
-            return gameSessionRepository.findByIdAndUser(sessionId, user);
+            return resolve(gameSessionRepository.findByIdAndUser(sessionId, userRepo.getReferenceById(userId)));
         }
         // For development: allow getting session by ID only
-        return gameSessionRepository.findById(sessionId);
+        return getSessionById(sessionId);
     }
     
     public Optional<GameSession> getSessionById(Long sessionId) {
+        if (gameSessionStore.isEnabled()) {
+            return gameSessionStore.get(sessionId);
+        }
         return gameSessionRepository.findById(sessionId);
     }
     
     public Optional<GameSession> getLatestSession(UUID userId) {
-        User user = userRepo.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        return gameSessionRepository.findFirstByUserOrderByLastUpdatedDesc(user);
+        return resolve(gameSessionRepository.findFirstByUserOrderByLastUpdatedDesc(userRepo.getReferenceById(userId)));
     }
     
-    @Transactional
-    public GameSession updateSession(GameSession session) {
-        return gameSessionRepository.save(session);
+    // Prefer the in-memory instance so callers never see a state older than the write-behind store
+    private Optional<GameSession> resolve(Optional<GameSession> loaded) {
+        if (!gameSessionStore.isEnabled()) {
+            return loaded;
+        }
+        return loaded.map(gameSessionStore::resolve);
+    }
+    
+    public boolean transitionTo(GameSession session, GameStage target) {
+        // Validate transition prerequisites
+        if (!roomEngine.canEnter(session, target)) {
+            return false;
+        }
+        session.setStage(target);
+        return true;
     }
     
     public GameStateDTO convertToDTO(GameSession session) {
-        Map<String, Integer> inspectionCounts = parseInspectionCounts(session.getInspectionCounts());
-        
+        session.syncStateVersion();
         return GameStateDTO.builder()
                 .gameSessionId(session.getId())
-                .currentStage(session.getCurrentStage())
-                .hasRod(session.getHasRod())
-                .hasDeskKey(session.getHasDeskKey())
-                .hasMetalPiece(session.getHasMetalPiece())
-                .cellDrawerUnlocked(session.getCellDrawerUnlocked())
-                .cellDoorUnlocked(session.getCellDoorUnlocked())
-                .deskDrawerUnlocked(session.getDeskDrawerUnlocked())
-                .finalDoorUnlocked(session.getFinalDoorUnlocked())
-                .inspectionCounts(inspectionCounts)
+                .stateVersion(session.getStateVersion())
+                .currentStage(session.getStage().name())
+                .hasRod(session.has(SessionFlag.HAS_ROD))
+                .hasDeskKey(session.has(SessionFlag.HAS_DESK_KEY))
+                .hasMetalPiece(session.has(SessionFlag.HAS_METAL_PIECE))
+                .cellDrawerUnlocked(session.has(SessionFlag.CELL_DRAWER_UNLOCKED))
+                .cellDoorUnlocked(session.has(SessionFlag.CELL_DOOR_UNLOCKED))
+                .deskDrawerUnlocked(session.has(SessionFlag.DESK_DRAWER_UNLOCKED))
+                .finalDoorUnlocked(session.has(SessionFlag.FINAL_DOOR_UNLOCKED))
+                .inspectionCounts(session.getInspectionCounts().toMap(roomEngine.inspectionKeys()))
                 .build();
     }
     
-    public Map<String, Integer> parseInspectionCounts(String json) {
-        try {
-            if (json == null || json.trim().isEmpty()) {
-                return new HashMap<>();
-            }
-            return objectMapper.readValue(json, new TypeReference<Map<String, Integer>>() {});
-        } catch (Exception e) {
-            return new HashMap<>();
+    /**
+     * Converts the state for a client that already holds {@code knownVersion}: only the fields changed
+     * since then when that is the version the current action started from (nothing at all when the
+     * client is up to date), the full state otherwise.
+     */
+    public GameStateDTO convertToDTO(GameSession session, Long knownVersion) {
+        session.syncStateVersion();
+        GameStateSnapshot baseline = session.getBaseline();
+        if (knownVersion == null) {
+            return convertToDTO(session);
         }
+        
+        GameStateDTO delta = GameStateDTO.builder()
+                .gameSessionId(session.getId())
+                .stateVersion(session.getStateVersion())
+                .partial(true)
+                .build();
+        if (knownVersion == session.getStateVersion()) {
+            return delta;
+        }
+        if (baseline == null || knownVersion != baseline.version()) {
+            return convertToDTO(session);
+        }
+        
+        if (baseline.stage() != session.getStage()) {
+            delta.setCurrentStage(session.getStage().name());
+        }
+        long changedFlags = baseline.stateFlags() ^ session.getStateFlags();
+        delta.setHasRod(changed(session, changedFlags, SessionFlag.HAS_ROD));
+        delta.setHasDeskKey(changed(session, changedFlags, SessionFlag.HAS_DESK_KEY));
+        delta.setHasMetalPiece(changed(session, changedFlags, SessionFlag.HAS_METAL_PIECE));
+        delta.setCellDrawerUnlocked(changed(session, changedFlags, SessionFlag.CELL_DRAWER_UNLOCKED));
+        delta.setCellDoorUnlocked(changed(session, changedFlags, SessionFlag.CELL_DOOR_UNLOCKED));
+        delta.setDeskDrawerUnlocked(changed(session, changedFlags, SessionFlag.DESK_DRAWER_UNLOCKED));
+        delta.setFinalDoorUnlocked(changed(session, changedFlags, SessionFlag.FINAL_DOOR_UNLOCKED));
+        
+        Map<String, Integer> changedCounts = session.getInspectionCounts()
+                .changedSince(baseline.inspectionCounts(), roomEngine.inspectionKeys());
+        if (!changedCounts.isEmpty()) {
+            delta.setInspectionCounts(changedCounts);
+        }
+        return delta;
     }
     
-    public String serializeInspectionCounts(Map<String, Integer> counts) {
-        try {
-            return objectMapper.writeValueAsString(counts);
-        } catch (Exception e) {
-            return "{}";
-        }
+    // The flag's new value if it changed, null (left out of the delta) otherwise
+    private Boolean changed(GameSession session, long changedFlags, SessionFlag flag) {
+        return (changedFlags & flag.mask()) != 0 ? session.has(flag) : null;
     }
     
-    @Transactional
-    public void incrementInspectionCount(GameSession session, String stage, String area) {
-        Map<String, Integer> counts = parseInspectionCounts(session.getInspectionCounts());
-        String key = area != null ? stage + "_" + area : stage + "_scene";
-        counts.put(key, counts.getOrDefault(key, 0) + 1);
-        session.setInspectionCounts(serializeInspectionCounts(counts));
-        gameSessionRepository.save(session);
+    /**
+     * Strong ETag of a session's state; changes whenever the state version does.
+     */
+    public String eTag(GameSession session) {
+        return "\"" + session.getId() + "-" + session.getStateVersion() + "\"";
+    }
+    
+    public int incrementInspectionCount(GameSession session, String stage, String area) {
+        return session.getInspectionCounts().increment(roomEngine.inspectionKeys().key(stage, area));
     }
     
     public int getInspectionCount(GameSession session, String stage, String area) {
-        Map<String, Integer> counts = parseInspectionCounts(session.getInspectionCounts());
-        String key = area != null ? stage + "_" + area : stage + "_scene";
-        return counts.getOrDefault(key, 0);
+        return session.getInspectionCounts().get(roomEngine.inspectionKeys().key(stage, area));
     }
 }
@@ -0,0 +1,346 @@
+package com.escaperoom.backend.service;
+
+import com.escaperoom.backend.model.GameSession;
+import com.escaperoom.backend.model.GameStage;
+import com.escaperoom.backend.repo.GameSessionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind store for live game sessions.
+ *
+ * When enabled, sessions are kept in memory (LRU-bounded) and changes are only marked dirty.
+ * Dirty sessions are written back to {@code game_sessions} in batches on a fixed interval,
+ * so repeated clicks on the same session coalesce into a single UPDATE. Stage transitions
+ * (e.g. reaching ESCAPED) and evictions are flushed right away.
+ *
+ * Actions change the shared in-memory instance under {@link #lockFor(Long)}. Writes copy the session under
+ * the same lock and save the copy, so they never see an action half applied, and the row version they
+ * produce is kept in the store rather than on the shared instance. An instance the store has since dropped
+ * therefore cannot be written any more; changes to it fail like a concurrent write and are re-run on a
+ * fresh load.
+ */
+@Component
+public class GameSessionStore {
+
+    private static final Logger log = LoggerFactory.getLogger(GameSessionStore.class);
+    private static final int SESSION_LOCK_STRIPES = 64;
+
+    private final GameSessionRepository gameSessionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxSessions;
+    private final int flushBatchSize;
+
+    // Access-ordered so the eldest entry is the least recently used session; guarded by "this"
+    private final LinkedHashMap<Long, Entry> entries;
+    private final List<Entry> evicted = new ArrayList<>();
+    // Open connections per session, kept apart from the entries so they outlive a reloaded session; guarded by "this"
+    private final Map<Long, Integer> pins = new HashMap<>();
+    private final ReentrantLock[] sessionLocks = new ReentrantLock[SESSION_LOCK_STRIPES];
+
+    public GameSessionStore(GameSessionRepository gameSessionRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${escaperoom.session-store.write-behind.enabled:false}") boolean enabled,
+                            @Value("${escaperoom.session-store.max-sessions:10000}") int maxSessions,
+                            @Value("${escaperoom.session-store.flush-batch-size:100}") int flushBatchSize) {
+        this.gameSessionRepository = gameSessionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxSessions = maxSessions;
+        this.flushBatchSize = flushBatchSize;
+        for (int i = 0; i < sessionLocks.length; i++) {
+            sessionLocks[i] = new ReentrantLock();
+        }
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() <= GameSessionStore.this.maxSessions) {
+                    return false;
+                }
+                // Evict the least recently used session that is not pinned by an open connection
+                Iterator<Entry> lru = values().iterator();
+                while (lru.hasNext()) {
+                    Entry entry = lru.next();
+                    if (!pins.containsKey(entry.session.getId())) {
+                        lru.remove();
+                        if (entry.dirty) {
+                            evicted.add(entry);
+                        }
+                        break;
+                    }
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The lock to hold while changing or copying a session held by this store. A ReentrantLock rather than
+     * a monitor: writes may go to the database while it is held, and blocking inside synchronized would pin
+     * a virtual thread to its carrier.
+     */
+    public ReentrantLock lockFor(Long sessionId) {
+        return sessionLocks[(int) (sessionId & (SESSION_LOCK_STRIPES - 1))];
+    }
+
+    public Optional<GameSession> get(Long sessionId) {
+        synchronized (this) {
+            Entry entry = entries.get(sessionId);
+            if (entry != null) {
+                return Optional.of(entry.session);
+            }
+        }
+        return gameSessionRepository.findById(sessionId).map(this::resolve);
+    }
+
+    /**
+     * Returns the live in-memory instance for a session loaded from the database,
+     * caching the loaded instance if the session is not held yet.
+     */
+    public GameSession resolve(GameSession loaded) {
+        List<Entry> toFlush;
+        GameSession live;
+        synchronized (this) {
+            Entry entry = entries.get(loaded.getId());
+            if (entry == null) {
+                entry = new Entry(loaded);
+                entries.put(loaded.getId(), entry);
+            }
+            live = entry.session;
+            toFlush = drainEvicted();
+        }
+        write(toFlush, false);
+        return live;
+    }
+
+    public void markDirty(GameSession session) {
+        Entry entry;
+        List<Entry> toFlush;
+        synchronized (this) {
+            entry = entries.get(session.getId());
+            if (entry == null || entry.session != session) {
+                // Evicted, or discarded after a conflicting write, while the action ran: the version to write
+                // it with went with it
+                throw new ObjectOptimisticLockingFailureException(GameSession.class, session.getId());
+            }
+            entry.dirty = true;
+            toFlush = drainEvicted();
+        }
+        if (entry.persistedStage != session.getStage()) {
+            toFlush.add(entry);
+        }
+        write(toFlush, false);
+    }
+
+    @Scheduled(fixedDelayString = "${escaperoom.session-store.flush-interval-ms:2000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        List<Entry> dirty = new ArrayList<>();
+        synchronized (this) {
+            for (Entry entry : entries.values()) {
+                if (entry.dirty) {
+                    dirty.add(entry);
+                }
+            }
+            dirty.addAll(drainEvicted());
+        }
+        // Flushes wait for each other's writes; taking the sessions in id order keeps two of them from deadlocking
+        dirty.sort(Comparator.comparing(entry -> entry.session.getId()));
+        for (int from = 0; from < dirty.size(); from += flushBatchSize) {
+            write(dirty.subList(from, Math.min(from + flushBatchSize, dirty.size())), true);
+        }
+    }
+
+    /**
+     * Keeps a session in memory until the matching {@link #unpin(Long)}, e.g. for the lifetime of a game connection.
+     */
+    public void pin(Long sessionId) {
+        if (!enabled || get(sessionId).isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            pins.merge(sessionId, 1, Integer::sum);
+        }
+    }
+
+    public synchronized void unpin(Long sessionId) {
+        pins.computeIfPresent(sessionId, (id, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void writeOne(Entry entry, GameSession copy) {
+        try {
+            written(entry, transactionTemplate.execute(status -> gameSessionRepository.save(copy)));
+        } catch (OptimisticLockingFailureException e) {
+            // The row changed outside this store, so the database copy wins and is reloaded on next access
+            log.warn("Game session {} was changed concurrently, discarding its in-memory state", entry.session.getId());
+            synchronized (this) {
+                entries.remove(entry.session.getId(), entry);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush game session {}, will retry on next flush", entry.session.getId(), e);
+            retryLater(entry);
+        }
+    }
+
+    // The next write of the session has to carry the version this one produced
+    private void written(Entry entry, GameSession saved) {
+        entry.version = saved.getLockVersion();
+        entry.persistedStage = saved.getStage();
+    }
+
+    private synchronized void retryLater(Entry entry) {
+        entry.dirty = true;
+        // Keep evicted sessions around until they make it to the database
+        if (entries.get(entry.session.getId()) != entry) {
+            evicted.add(entry);
+        }
+    }
+
+    /**
+     * Drops a session that is neither pinned nor waiting to be written, e.g. before its row is deleted.
+     * Returns false if the session has to stay in memory.
+     */
+    public synchronized boolean release(Long sessionId) {
+        if (pins.containsKey(sessionId)) {
+            return false;
+        }
+        Entry entry = entries.get(sessionId);
+        if (entry == null) {
+            return evicted.stream().noneMatch(waiting -> waiting.session.getId().equals(sessionId));
+        }
+        if (entry.dirty) {
+            return false;
+        }
+        entries.remove(sessionId);
+        return true;
+    }
+
+    public synchronized void evict(Long sessionId) {
+        entries.remove(sessionId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private List<Entry> drainEvicted() {
+        List<Entry> drained = new ArrayList<>(evicted);
+        evicted.clear();
+        return drained;
+    }
+
+    /**
+     * Saves copies of the given sessions. {@code wait} is only true for flushes, which hold no session lock of
+     * their own. Other callers may hold one, so they skip sessions that are locked or already being written,
+     * since waiting could deadlock, and leave them dirty for the next flush.
+     */
+    private void write(List<Entry> batch, boolean wait) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Entry> writing = new ArrayList<>(batch.size());
+        List<GameSession> copies = new ArrayList<>(batch.size());
+        for (Entry entry : batch) {
+            if (wait) {
+                entry.writing.lock();
+            }
+            GameSession copy = wait || entry.writing.tryLock() ? copy(entry, wait) : null;
+            if (copy == null) {
+                if (entry.writing.isHeldByCurrentThread()) {
+                    entry.writing.unlock();
+                }
+                retryLater(entry);
+                continue;
+            }
+            writing.add(entry);
+            copies.add(copy);
+        }
+        if (writing.isEmpty()) {
+            return;
+        }
+        try {
+            List<GameSession> saved = transactionTemplate.execute(status -> gameSessionRepository.saveAll(copies));
+            for (int i = 0; i < writing.size(); i++) {
+                written(writing.get(i), saved.get(i));
+            }
+        } catch (OptimisticLockingFailureException e) {
+            // Someone else wrote one of these rows; find out which one(s) instead of failing the whole batch
+            for (int i = 0; i < writing.size(); i++) {
+                writeOne(writing.get(i), copies.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush {} game session(s), will retry on next flush", writing.size(), e);
+            writing.forEach(this::retryLater);
+        } finally {
+            writing.forEach(entry -> entry.writing.unlock());
+        }
+    }
+
+    // A detached copy taken under the session lock; clearing the flag at the same time means any later change
+    // marks the session dirty again. Null if the lock is busy and the caller must not wait for it.
+    private GameSession copy(Entry entry, boolean wait) {
+        GameSession session = entry.session;
+        ReentrantLock lock = lockFor(session.getId());
+        if (wait) {
+            lock.lock();
+        } else if (!lock.tryLock()) {
+            return null;
+        }
+        try {
+            entry.dirty = false;
+            return GameSession.builder()
+                    .id(session.getId())
+                    .user(session.getUser())
+                    .stage(session.getStage())
+                    .stateFlags(session.getStateFlags())
+                    .inspectionCounts(session.getInspectionCounts().copy())
+                    .stateVersion(session.getStateVersion())
+                    .lockVersion(entry.version)
+                    .startTime(session.getStartTime())
+                    .lastUpdated(session.getLastUpdated())
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Entry {
+        private final GameSession session;
+        private final ReentrantLock writing = new ReentrantLock();
+        private volatile boolean dirty;
+        private volatile GameStage persistedStage;
+        private volatile long version;
+
+        private Entry(GameSession session) {
+            this.session = session;
+            this.persistedStage = session.getStage();
+            this.version = session.getLockVersion();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.escaperoom.backend.service;
+
+import com.escaperoom.backend.config.IdentityCacheProperties;
+import com.escaperoom.backend.dto.UserResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Near-cache of user identities (id and email) by email and by id, so that resolving or confirming a user
+ * usually needs no query. Unknown emails and ids are remembered too, for a shorter time.
+ *
+ * Entries live in independently locked, LRU-bounded shards and expire after a TTL. A negative entry never
+ * replaces a known identity, so a lookup racing a signup cannot hide the new user once {@link #put} has run.
+ * Lookups are counted as {@code escaperoom.identity.cache.requests{lookup,result}}.
+ */
+@Component
+public class IdentityCache {
+
+    private static final int SHARDS = 16;
+    private static final String REQUESTS_METRIC = "escaperoom.identity.cache.requests";
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final ShardedLru<String, Entry> byEmail;
+    private final ShardedLru<UUID, Entry> byId;
+    private final Counter emailHits;
+    private final Counter emailMisses;
+    private final Counter idHits;
+    private final Counter idMisses;
+
+    public IdentityCache(IdentityCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.ttlNanos = properties.getTtl().toNanos();
+        this.negativeTtlNanos = properties.getNegativeTtl().toNanos();
+        this.byEmail = new ShardedLru<>(SHARDS, properties.getMaxEntries());
+        this.byId = new ShardedLru<>(SHARDS, properties.getMaxEntries());
+        this.emailHits = meterRegistry.counter(REQUESTS_METRIC, "lookup", "email", "result", "hit");
+        this.emailMisses = meterRegistry.counter(REQUESTS_METRIC, "lookup", "email", "result", "miss");
+        this.idHits = meterRegistry.counter(REQUESTS_METRIC, "lookup", "id", "result", "hit");
+        this.idMisses = meterRegistry.counter(REQUESTS_METRIC, "lookup", "id", "result", "miss");
+        Gauge.builder("escaperoom.identity.cache.size", this, IdentityCache::size).register(meterRegistry);
+    }
+
+    public Optional<UserResponse> byEmail(String email, Function<String, Optional<UserResponse>> loader) {
+        return lookup(byEmail, email, loader, emailHits, emailMisses);
+    }
+
+    public Optional<UserResponse> byId(UUID id, Function<UUID, Optional<UserResponse>> loader) {
+        return lookup(byId, id, loader, idHits, idMisses);
+    }
+
+    /**
+     * Caches a user known to exist, once the surrounding transaction (if any) has committed.
+     */
+    public void put(UserResponse identity) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            store(identity);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                store(identity);
+            }
+        });
+    }
+
+    private <K> Optional<UserResponse> lookup(ShardedLru<K, Entry> entries, K key, Function<K, Optional<UserResponse>> loader,
+                                              Counter hits, Counter misses) {
+        if (!enabled || key == null) {
+            return loader.apply(key);
+        }
+        Map<K, Entry> shard = entries.shard(key);
+        long now = System.nanoTime();
+        Entry cached;
+        synchronized (shard) {
+            cached = shard.get(key);
+            if (cached != null && cached.expiresAt - now < 0) {
+                shard.remove(key);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            hits.increment();
+            return Optional.ofNullable(cached.identity);
+        }
+        misses.increment();
+        Optional<UserResponse> loaded = loader.apply(key);
+        if (loaded.isPresent()) {
+            store(loaded.get());
+        } else {
+            Entry missing = new Entry(null, System.nanoTime() + negativeTtlNanos);
+            synchronized (shard) {
+                Entry current = shard.get(key);
+                if (current == null || current.identity == null) {
+                    shard.put(key, missing);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private void store(UserResponse identity) {
+        Entry entry = new Entry(identity, System.nanoTime() + ttlNanos);
+        Map<String, Entry> emailShard = byEmail.shard(identity.getEmail());
+        synchronized (emailShard) {
+            emailShard.put(identity.getEmail(), entry);
+        }
+        Map<UUID, Entry> idShard = byId.shard(identity.getId());
+        synchronized (idShard) {
+            idShard.put(identity.getId(), entry);
+        }
+    }
+
+    private int size() {
+        return byEmail.size() + byId.size();
+    }
+
+    // identity is null for an email or id that is known not to exist
+    private record Entry(UserResponse identity, long expiresAt) {
+    }
+}
@@ -2,123 +2,55 @@ package com.escaperoom.backend.service;
 
 import com.escaperoom.backend.model.GameSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Random;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class InspectionService {
-    
+
     private final GameSessionService gameSessionService;
-    private final Random random;
-    
+    private final RoomEngine roomEngine;
+    // When set, texts are picked deterministically per session, so a replayed session reads the same texts
+    private final Long seed;
+
     @Autowired
-    public InspectionService(GameSessionService gameSessionService) {
+    public InspectionService(GameSessionService gameSessionService,
+                             RoomEngine roomEngine,
+                             @Value("${escaperoom.narrative.seed:#{null}}") Long seed) {
         this.gameSessionService = gameSessionService;
-        this.random = new Random();
+        this.roomEngine = roomEngine;
+        this.seed = seed;
     }
-    
-    public String getInspectionText(GameSession session, String stage, String area) {
+
+    public String getInspectionText(GameSession session, String stage, String area, Locale locale) {
         // Increment inspection count
-        gameSessionService.incrementInspectionCount(session, stage, area);
-        int count = gameSessionService.getInspectionCount(session, stage, area);
-        
-        if ("CELL".equals(stage)) {
-            return getCellInspectionText(session, count, area);
-        } else if ("DESK".equals(stage)) {
-            return getDeskInspectionText(session, count, area);
-        }
-        
-        return "You look around, but nothing stands out.";
-    }
-    
-    private String getCellInspectionText(GameSession session, int count, String area) {
-        // First few clicks: General observations (flavor text)
-        if (count <= 3) {
-            List<String> flavorTexts = Arrays.asList(
-                "The cell is dimly lit. Stone walls surround you.",
-                "You notice the bars are sturdy, made of iron.",
-                "There's a small window, too high to reach.",
-                "The floor is cold and rough beneath your feet.",
-                "A single cot sits in the corner, covered with a thin blanket."
-            );
-            return getRandomText(flavorTexts);
-        }
-        
-        // After 3 clicks: Start hinting at drawer (if not unlocked)
-        if (!session.getCellDrawerUnlocked() && count == 4) {
-            return "There's a small drawer in the corner, but it's locked.";
-        }
-        
-        // If drawer unlocked but rod not found: Hint at rod
-        if (session.getCellDrawerUnlocked() && !session.getHasRod() && count >= 5) {
-            return "The drawer is open. Inside, you see a metal rod, about a foot long. It might be useful.";
-        }
-        
-        // If rod found but key not retrieved: Hint at using it
-        if (session.getHasRod() && !session.getHasDeskKey() && count >= 6) {
-            return "Through the bars, you can see a key on the deputy's desk, just out of reach. Perhaps you can use something to retrieve it.";
-        }
-        
-        // After using rod to get key: Success message
-        if (session.getHasDeskKey() && count >= 7) {
-            return "You successfully retrieved the key using the rod. It might unlock something.";
-        }
-        
-        // If door is unlocked but still in CELL stage
-        if (session.getCellDoorUnlocked()) {
-            return "The cell door is now unlocked. You can move forward.";
-        }
-        
-        // Default: Return varied flavor text
-        List<String> defaultTexts = Arrays.asList(
-            "You examine the cell more carefully, but find nothing new.",
-            "The stone walls offer no secrets.",
-            "Time passes slowly in this place."
-        );
-        return getRandomText(defaultTexts);
+        int count = gameSessionService.incrementInspectionCount(session, stage, area);
+
+        // Texts, hints and side effects (e.g. finding the rod) come from the room's inspection script
+        return roomEngine.inspect(session, stage, count, locale, roll(session, stage, area, count));
     }
-    
-    private String getDeskInspectionText(GameSession session, int count, String area) {
-        // First few clicks: General observations
-        if (count <= 3) {
-            List<String> flavorTexts = Arrays.asList(
-                "The deputy's desk is cluttered with paperwork.",
-                "A lamp casts shadows across the room.",
-                "You're now outside the cell, but still in the prison.",
-                "The desk drawer appears to be locked.",
-                "Various items are scattered on the desk surface."
-            );
-            return getRandomText(flavorTexts);
-        }
-        
-        // After 3 clicks: Hint at desk drawer
-        if (!session.getDeskDrawerUnlocked() && count == 4) {
-            return "The desk drawer is locked. You'll need to find the right combination.";
-        }
-        
-        // If desk drawer unlocked
-        if (session.getDeskDrawerUnlocked() && !session.getFinalDoorUnlocked()) {
-            return "The drawer is open. Inside, you find a note with numbers: 4-7-2-9. This might be important.";
-        }
-        
-        // If final door unlocked
-        if (session.getFinalDoorUnlocked()) {
-            return "The path to freedom is clear. You have escaped!";
-        }
-        
-        // Default: Return varied flavor text
-        List<String> defaultTexts = Arrays.asList(
-            "You search the desk area, but find nothing new.",
-            "The paperwork reveals nothing useful.",
-            "Time is running out."
-        );
-        return getRandomText(defaultTexts);
+
+    private long roll(GameSession session, String stage, String area, int count) {
+        if (seed == null) {
+            return ThreadLocalRandom.current().nextLong();
+        }
+        // The count-th value of the sequence seeded by the session and the inspected spot
+        Long sessionId = session.getId();
+        long h = mix(seed + (sessionId == null ? 0L : sessionId));
+        h = mix(h + Objects.hashCode(stage));
+        h = mix(h + Objects.hashCode(area));
+        return mix(h + count);
     }
-    
-    private String getRandomText(List<String> texts) {
-        return texts.get(random.nextInt(texts.size()));
+
+    // SplitMix64 step
+    private static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
 }
@@ -0,0 +1,243 @@
+package com.escaperoom.backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Best time per user for one difficulty, ranked fastest first; equal times rank by who got there first.
+ *
+ * Entries sit in a treap whose nodes also count their subtree, so rank lookups, inserts, removals and
+ * jumping to the n-th entry all take O(log n). Reads share a read lock; updates are serialized.
+ */
+public final class Leaderboard {
+
+    public record Entry(int rank, UUID userId, long timeMillis, long achievedAtMillis) {
+    }
+
+    private final Map<UUID, Node> byUser = new HashMap<>();
+    private final SplittableRandom priorities = new SplittableRandom();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+
+    /**
+     * Records a finished run, keeping it only if it beats the user's current best.
+     */
+    public boolean offer(UUID userId, long timeMillis, long achievedAtMillis) {
+        lock.writeLock().lock();
+        try {
+            Node current = byUser.get(userId);
+            Node candidate = new Node(userId, timeMillis, achievedAtMillis, priorities.nextInt());
+            if (current != null) {
+                if (compare(candidate, current) >= 0) {
+                    return false;
+                }
+                root = remove(root, current);
+            }
+            root = insert(root, candidate);
+            byUser.put(userId, candidate);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Entry entry(UUID userId) {
+        lock.readLock().lock();
+        try {
+            Node node = byUser.get(userId);
+            return node == null ? null : node.toEntry(rank(node));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code count} entries starting at 1-based {@code fromRank}.
+     */
+    public List<Entry> range(int fromRank, int count) {
+        lock.readLock().lock();
+        try {
+            List<Entry> entries = new ArrayList<>(Math.max(0, Math.min(count, size(root) - fromRank + 1)));
+            collect(root, Math.max(fromRank, 1) - 1, 0, count, entries);
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The user's entry with up to {@code radius} entries on either side; empty if the user has no run.
+     */
+    public List<Entry> around(UUID userId, int radius) {
+        lock.readLock().lock();
+        try {
+            Node node = byUser.get(userId);
+            if (node == null) {
+                return List.of();
+            }
+            int from = Math.max(1, rank(node) - radius);
+            int to = Math.min(size(root), rank(node) + radius);
+            List<Entry> entries = new ArrayList<>(to - from + 1);
+            collect(root, from - 1, 0, to - from + 1, entries);
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 1-based position of a node that is in the tree
+    private int rank(Node target) {
+        int rank = 1;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(target, node);
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left);
+                if (cmp == 0) {
+                    return rank;
+                }
+                rank++;
+                node = node.right;
+            }
+        }
+        throw new IllegalStateException("Leaderboard entry is not in the tree");
+    }
+
+    // In-order walk over ranks [skip, skip + count), only descending into subtrees that overlap it
+    private static void collect(Node node, int skip, int offset, int count, List<Entry> out) {
+        if (node == null || out.size() >= count) {
+            return;
+        }
+        int position = offset + size(node.left);
+        if (skip < position) {
+            collect(node.left, skip, offset, count, out);
+        }
+        if (position >= skip && out.size() < count) {
+            out.add(node.toEntry(position + 1));
+        }
+        if (skip <= position + size(node.right) && out.size() < count) {
+            collect(node.right, skip, position + 1, count, out);
+        }
+    }
+
+    private Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private Node remove(Node node, Node removed) {
+        int cmp = compare(removed, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, removed);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, removed);
+        } else {
+            return merge(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private static int compare(Node a, Node b) {
+        int cmp = Long.compare(a.timeMillis, b.timeMillis);
+        if (cmp == 0) {
+            cmp = Long.compare(a.achievedAtMillis, b.achievedAtMillis);
+        }
+        return cmp != 0 ? cmp : a.userId.compareTo(b.userId);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node {
+        final UUID userId;
+        final long timeMillis;
+        final long achievedAtMillis;
+        final int priority;
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(UUID userId, long timeMillis, long achievedAtMillis, int priority) {
+            this.userId = userId;
+            this.timeMillis = timeMillis;
+            this.achievedAtMillis = achievedAtMillis;
+            this.priority = priority;
+        }
+
+        void update() {
+            size = 1 + Leaderboard.size(left) + Leaderboard.size(right);
+        }
+
+        Entry toEntry(int rank) {
+            return new Entry(rank, userId, timeMillis, achievedAtMillis);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.escaperoom.backend.service;
+
+import com.escaperoom.backend.model.DifficultyLevel;
+import com.escaperoom.backend.repo.EscapeRunRepo;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * In-memory leaderboards, one per {@link DifficultyLevel}, over each user's best time.
+ *
+ * Built from {@code escape_runs} once at startup and updated as runs are recorded, so reads never
+ * sort the runs table. See {@link Leaderboard} for the ranking rules.
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final EscapeRunRepo escapeRunRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<DifficultyLevel, Leaderboard> boards = new EnumMap<>(DifficultyLevel.class);
+
+    public LeaderboardService(EscapeRunRepo escapeRunRepo, PlatformTransactionManager transactionManager) {
+        this.escapeRunRepo = escapeRunRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        for (DifficultyLevel difficulty : DifficultyLevel.values()) {
+            boards.put(difficulty, new Leaderboard());
+        }
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<EscapeRunRepo.BestTime> bestTimes = escapeRunRepo.streamBestTimes()) {
+                bestTimes.forEach(best -> boards.get(best.getDifficulty())
+                        .offer(best.getUserId(), best.getTotalTimeMillis(), best.getFinishedAt().toEpochMilli()));
+            }
+        });
+        boards.forEach((difficulty, board) -> log.info("Leaderboard {}: {} players", difficulty, board.size()));
+    }
+
+    /**
+     * Adds a run to its leaderboard once the surrounding transaction has committed.
+     */
+    public void record(UUID userId, DifficultyLevel difficulty, long totalTimeMillis, Instant finishedAt) {
+        Leaderboard board = boards.get(difficulty);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            board.offer(userId, totalTimeMillis, finishedAt.toEpochMilli());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                board.offer(userId, totalTimeMillis, finishedAt.toEpochMilli());
+            }
+        });
+    }
+
+    public List<Leaderboard.Entry> top(DifficultyLevel difficulty, int limit) {
+        return board(difficulty).range(1, pageSize(limit));
+    }
+
+    public Optional<Leaderboard.Entry> entry(DifficultyLevel difficulty, UUID userId) {
+        return Optional.ofNullable(board(difficulty).entry(userId));
+    }
+
+    public List<Leaderboard.Entry> around(DifficultyLevel difficulty, UUID userId, int radius) {
+        return board(difficulty).around(userId, pageSize(2 * radius + 1) / 2);
+    }
+
+    public int size(DifficultyLevel difficulty) {
+        return board(difficulty).size();
+    }
+
+    private Leaderboard board(DifficultyLevel difficulty) {
+        if (difficulty == null) {
+            throw new IllegalArgumentException("Difficulty must be provided.");
+        }
+        return boards.get(difficulty);
+    }
+
+    private static int pageSize(int requested) {
+        if (requested < 1) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+        return Math.min(requested, MAX_PAGE_SIZE);
+    }
+}
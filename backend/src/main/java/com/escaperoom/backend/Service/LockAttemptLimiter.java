@@ -0,0 +1,191 @@
+package com.escaperoom.backend.service;
+
+import com.escaperoom.backend.config.LockAttemptProperties;
+import com.escaperoom.backend.model.GameSession;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Throttles lock guesses with in-memory token buckets, one per (game session, lock) and one per (user, lock).
+ *
+ * Buckets are spread over independently locked, LRU-bounded shards, so guesses on different sessions rarely
+ * contend. A session's owner is learned on its first guess; from then on {@link #mayAcquire(String, Long)} can
+ * check both buckets before the session is loaded, and a guess on an empty bucket never reaches the database.
+ * That check takes nothing: tokens are only taken through {@link Charges#allows} once the caller is known to
+ * own the session, so guesses at someone else's session cannot drain its buckets.
+ * Rejections are counted per lock as {@code escaperoom.lock.attempts.rejected}.
+ */
+@Component
+public class LockAttemptLimiter {
+
+    private static final int SHARDS = 64;
+    private static final String REJECTED_METRIC = "escaperoom.lock.attempts.rejected";
+
+    private final LockAttemptProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ShardedLru<BucketKey, Bucket> buckets;
+    private final ShardedLru<Long, UUID> owners;
+    private final Map<String, Rates> rates = new ConcurrentHashMap<>();
+
+    public LockAttemptLimiter(LockAttemptProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.buckets = new ShardedLru<>(SHARDS, properties.getMaxBuckets());
+        this.owners = new ShardedLru<>(SHARDS, properties.getMaxBuckets());
+    }
+
+    /**
+     * Whether the session and, if already known, its owner still have a guess on {@code lockType} left.
+     * Takes no token, so it is safe to ask before the caller's access to the session is checked.
+     */
+    public boolean mayAcquire(String lockType, Long sessionId) {
+        if (!properties.isEnabled() || sessionId == null) {
+            return true;
+        }
+        Rates rate = rates(lockType);
+        if (!available(new BucketKey(sessionId, lockType), rate.session, lockType, "session")) {
+            return false;
+        }
+        UUID owner = owner(sessionId);
+        return owner == null || available(new BucketKey(owner, lockType), rate.user, lockType, "user");
+    }
+
+    /**
+     * Starts charging the guesses of one request. {@link GameActionPipeline} actions may run more than once,
+     * so each guess is charged at most once however often its action runs.
+     */
+    public Charges charges() {
+        return new Charges();
+    }
+
+    // Time for a session's bucket to regain one guess
+    public long retryAfterSeconds(String lockType) {
+        return Math.max(1, (long) Math.ceil(1 / (rates(lockType).session.perNano * 1e9)));
+    }
+
+    // Charges a guess to a session the caller may access and to its owner, who is remembered from here on
+    private boolean tryAcquire(String lockType, GameSession session) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        Rates rate = rates(lockType);
+        if (!take(new BucketKey(session.getId(), lockType), rate.session, lockType, "session")) {
+            return false;
+        }
+        UUID owner = session.getUser().getId();
+        Map<Long, UUID> shard = owners.shard(session.getId());
+        synchronized (shard) {
+            shard.putIfAbsent(session.getId(), owner);
+        }
+        return take(new BucketKey(owner, lockType), rate.user, lockType, "user");
+    }
+
+    private boolean take(BucketKey key, Rate rate, String lockType, String scope) {
+        Map<BucketKey, Bucket> shard = buckets.shard(key);
+        long now = System.nanoTime();
+        boolean taken;
+        synchronized (shard) {
+            Bucket bucket = shard.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(rate.burst, now);
+                shard.put(key, bucket);
+            }
+            taken = bucket.take(rate, now);
+        }
+        if (!taken) {
+            rejected(lockType, scope);
+        }
+        return taken;
+    }
+
+    private boolean available(BucketKey key, Rate rate, String lockType, String scope) {
+        Map<BucketKey, Bucket> shard = buckets.shard(key);
+        long now = System.nanoTime();
+        boolean available;
+        synchronized (shard) {
+            Bucket bucket = shard.get(key);
+            available = bucket == null || bucket.available(rate, now);
+        }
+        if (!available) {
+            rejected(lockType, scope);
+        }
+        return available;
+    }
+
+    private void rejected(String lockType, String scope) {
+        meterRegistry.counter(REJECTED_METRIC, "lock", lockType, "scope", scope).increment();
+    }
+
+    private UUID owner(Long sessionId) {
+        Map<Long, UUID> shard = owners.shard(sessionId);
+        synchronized (shard) {
+            return shard.get(sessionId);
+        }
+    }
+
+    private Rates rates(String lockType) {
+        return rates.computeIfAbsent(lockType, type -> new Rates(
+                Rate.of(properties.sessionLimit(type)),
+                Rate.of(properties.userLimit(type))));
+    }
+
+    /**
+     * The verdicts on one request's guesses, keyed by the guess object. Not thread-safe; the runs of one
+     * pipeline action never overlap.
+     */
+    public final class Charges {
+        private final Map<Object, Boolean> verdicts = new IdentityHashMap<>();
+
+        private Charges() {
+        }
+
+        /**
+         * Whether a guess may be checked against a loaded session the caller has been allowed to access.
+         * The first call charges the session and its owner; a re-run action gets the same verdict for free.
+         */
+        public boolean allows(Object guess, String lockType, GameSession session) {
+            return verdicts.computeIfAbsent(guess, g -> tryAcquire(lockType, session));
+        }
+    }
+
+    private record BucketKey(Object subject, String lockType) {
+    }
+
+    private record Rates(Rate session, Rate user) {
+    }
+
+    private record Rate(int burst, double perNano) {
+        static Rate of(LockAttemptProperties.Limit limit) {
+            return new Rate(limit.getBurst(), limit.getRefillPerMinute() / 60e9);
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(int tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        boolean available(Rate rate, long now) {
+            return Math.min(rate.burst, tokens + (now - refilledAt) * rate.perNano) >= 1;
+        }
+
+        boolean take(Rate rate, long now) {
+            tokens = Math.min(rate.burst, tokens + (now - refilledAt) * rate.perNano);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.escaperoom.backend.service;
+
+import com.escaperoom.backend.model.RoomTexts;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Inspection text pools of a room, one immutable table per language, built once at startup.
+ *
+ * Slot 0 holds the texts of the room definition itself; it answers every language without a bundle and
+ * every pool a bundle leaves out. Picking a text is two array lookups and a modulo, so it allocates nothing.
+ */
+public final class NarrativeTexts {
+
+    private final Map<String, Integer> languageSlots;
+    private final String[][][] pools;           // [language slot][pool] -> texts
+    private final String[] unknownStageTexts;   // [language slot]
+
+    private NarrativeTexts(Map<String, Integer> languageSlots, String[][][] pools, String[] unknownStageTexts) {
+        this.languageSlots = languageSlots;
+        this.pools = pools;
+        this.unknownStageTexts = unknownStageTexts;
+    }
+
+    /**
+     * One text of {@code pool}; {@code roll} chooses which one when the pool holds several.
+     */
+    public String text(int pool, Locale locale, long roll) {
+        String[] texts = pools[slot(locale)][pool];
+        return texts.length == 1 ? texts[0] : texts[Math.floorMod(roll, texts.length)];
+    }
+
+    public String unknownStageText(Locale locale) {
+        return unknownStageTexts[slot(locale)];
+    }
+
+    private int slot(Locale locale) {
+        if (locale == null) {
+            return 0;
+        }
+        Integer slot = languageSlots.get(locale.getLanguage());
+        return slot == null ? 0 : slot;
+    }
+
+    /**
+     * @param defaults texts of each pool as given by the room definition
+     * @param keys     pool index of every rule that has a key, for resolving bundle entries
+     */
+    static NarrativeTexts build(String unknownStageText, String[][] defaults, Map<String, Integer> keys,
+                                List<RoomTexts> bundles) {
+        Map<String, Integer> languageSlots = new HashMap<>();
+        String[][][] pools = new String[bundles.size() + 1][][];
+        String[] unknownStageTexts = new String[bundles.size() + 1];
+        pools[0] = defaults;
+        unknownStageTexts[0] = unknownStageText;
+
+        for (int i = 0; i < bundles.size(); i++) {
+            RoomTexts bundle = bundles.get(i);
+            String language = bundle.getLocale() == null ? "" : Locale.forLanguageTag(bundle.getLocale()).getLanguage();
+            if (language.isEmpty()) {
+                throw new IllegalArgumentException("Text bundle #" + (i + 1) + " needs a locale");
+            }
+            if (languageSlots.put(language, i + 1) != null) {
+                throw new IllegalArgumentException("Texts for " + language + " are defined twice");
+            }
+
+            String[][] localized = defaults.clone();
+            for (Map.Entry<String, List<String>> entry : bundle.getTexts().entrySet()) {
+                Integer pool = keys.get(entry.getKey());
+                if (pool == null) {
+                    throw new IllegalArgumentException("Unknown text key in " + language + " texts: " + entry.getKey());
+                }
+                if (entry.getValue().isEmpty()) {
+                    throw new IllegalArgumentException("Text " + entry.getKey() + " has no " + language + " texts");
+                }
+                localized[pool] = entry.getValue().toArray(String[]::new);
+            }
+            pools[i + 1] = localized;
+            unknownStageTexts[i + 1] = bundle.getUnknownStageText() != null ? bundle.getUnknownStageText() : unknownStageText;
+        }
+        return new NarrativeTexts(Map.copyOf(languageSlots), pools, unknownStageTexts);
+    }
+}
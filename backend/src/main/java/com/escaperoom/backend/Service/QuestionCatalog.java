@@ -0,0 +1,224 @@
+package com.escaperoom.backend.service;
+
+import com.escaperoom.backend.model.DifficultyLevel;
+import com.escaperoom.backend.model.Question;
+import com.escaperoom.backend.repo.QuestionRepo;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.random.RandomGenerator;
+
+/**
+ * In-memory copy of the {@code questions} table, indexed by id and partitioned by {@link DifficultyLevel},
+ * each partition ordered by {@code orderNumber}.
+ *
+ * Loaded once at startup; {@link QuestionService} passes every saved or deleted question through
+ * {@link #put} / {@link #remove}, and {@link QuestionImportService} a whole import through {@link #putAll};
+ * all of them apply after commit. Questions change rarely, so each change swaps in a rebuilt snapshot and
+ * reads never lock.
+ */
+@Service
+public class QuestionCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionCatalog.class);
+
+    private static final Comparator<Question> BY_ORDER =
+            Comparator.comparingInt(Question::getOrderNumber).thenComparingLong(Question::getId);
+
+    private final QuestionRepo questionRepo;
+    private final TransactionTemplate transactionTemplate;
+    private volatile Snapshot snapshot = Snapshot.of(List.of());
+
+    public QuestionCatalog(QuestionRepo questionRepo, PlatformTransactionManager transactionManager) {
+        this.questionRepo = questionRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public synchronized void reload() {
+        List<Question> questions = transactionTemplate.execute(status ->
+                questionRepo.findAll().stream().map(QuestionCatalog::copy).toList());
+        snapshot = Snapshot.of(questions);
+        snapshot.byDifficulty.forEach((difficulty, partition) ->
+                log.info("Question catalog {}: {} questions", difficulty, partition.length));
+    }
+
+    public List<Question> all() {
+        return snapshot.all;
+    }
+
+    /**
+     * Up to {@code limit} questions ordered by id, starting after {@code after} (from the first if null).
+     */
+    public List<Question> pageAfter(Long after, int limit) {
+        List<Question> all = snapshot.all;
+        int from = after == null ? 0 : firstIdAbove(all, after);
+        return all.subList(from, Math.min(all.size(), from + limit));
+    }
+
+    public Optional<Question> find(Long id) {
+        return Optional.ofNullable(snapshot.byId.get(id));
+    }
+
+    /**
+     * The questions of one difficulty by {@code orderNumber}, then id.
+     */
+    public List<Question> inDifficulty(DifficultyLevel difficulty) {
+        if (difficulty == null) {
+            throw new IllegalArgumentException("Difficulty must be provided.");
+        }
+        return Collections.unmodifiableList(Arrays.asList(snapshot.byDifficulty.get(difficulty)));
+    }
+
+    /**
+     * {@code count} distinct questions of one difficulty, drawn uniformly with {@code random} and returned
+     * in catalog order. Costs O(count²) whatever the size of the catalog.
+     */
+    public List<Question> deal(DifficultyLevel difficulty, int count, RandomGenerator random) {
+        if (difficulty == null) {
+            throw new IllegalArgumentException("Difficulty must be provided.");
+        }
+        Question[] partition = snapshot.byDifficulty.get(difficulty);
+        if (count < 1 || count > partition.length) {
+            throw new IllegalArgumentException(
+                    "Can deal between 1 and " + partition.length + " " + difficulty + " questions.");
+        }
+        // Floyd's sampling: each step draws from a range one larger and takes its top when the draw is taken
+        int[] picked = new int[count];
+        int size = 0;
+        for (int bound = partition.length - count; bound < partition.length; bound++) {
+            int pick = random.nextInt(bound + 1);
+            boolean taken = contains(picked, size, pick);
+            picked[size++] = taken ? bound : pick;
+        }
+        Arrays.sort(picked);
+        Question[] dealt = new Question[count];
+        for (int i = 0; i < count; i++) {
+            dealt[i] = partition[picked[i]];
+        }
+        return List.of(dealt);
+    }
+
+    /**
+     * Replaces the catalog entry of a saved question once the surrounding transaction has committed.
+     */
+    public void put(Question question) {
+        Question entry = copy(question);
+        afterCommit(() -> apply(entry.getId(), entry));
+    }
+
+    /**
+     * Adds or replaces many saved questions with a single rebuild, once the surrounding transaction has committed.
+     */
+    public void putAll(Collection<Question> questions) {
+        List<Question> entries = questions.stream().map(QuestionCatalog::copy).toList();
+        afterCommit(() -> applyAll(entries));
+    }
+
+    public void remove(Long id) {
+        afterCommit(() -> apply(id, null));
+    }
+
+    private synchronized void apply(Long id, Question entry) {
+        Map<Long, Question> byId = new HashMap<>(snapshot.byId);
+        if (entry == null) {
+            byId.remove(id);
+        } else {
+            byId.put(id, entry);
+        }
+        snapshot = Snapshot.of(byId.values());
+    }
+
+    private synchronized void applyAll(List<Question> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Map<Long, Question> byId = new HashMap<>(snapshot.byId);
+        for (Question entry : entries) {
+            byId.put(entry.getId(), entry);
+        }
+        snapshot = Snapshot.of(byId.values());
+    }
+
+    private static int firstIdAbove(List<Question> byId, long id) {
+        int low = 0;
+        int high = byId.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (byId.get(mid).getId() <= id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    // Entries are detached copies, so changes to a managed entity only reach the catalog through put
+    private static Question copy(Question question) {
+        return new Question(question.getId(), question.getQuestionText(), question.getAnswer(),
+                question.getHint(), question.getOrderNumber(), question.getDifficulty());
+    }
+
+    private record Snapshot(Map<Long, Question> byId,
+                            List<Question> all,
+                            Map<DifficultyLevel, Question[]> byDifficulty) {
+
+        static Snapshot of(Collection<Question> questions) {
+            Map<Long, Question> byId = new HashMap<>(questions.size() * 2);
+            Map<DifficultyLevel, List<Question>> partitions = new EnumMap<>(DifficultyLevel.class);
+            for (DifficultyLevel difficulty : DifficultyLevel.values()) {
+                partitions.put(difficulty, new ArrayList<>());
+            }
+            for (Question question : questions) {
+                byId.put(question.getId(), question);
+                partitions.get(question.getDifficulty()).add(question);
+            }
+
+            Map<DifficultyLevel, Question[]> byDifficulty = new EnumMap<>(DifficultyLevel.class);
+            partitions.forEach((difficulty, partition) ->
+                    byDifficulty.put(difficulty, partition.stream().sorted(BY_ORDER).toArray(Question[]::new)));
+            List<Question> all = questions.stream().sorted(Comparator.comparingLong(Question::getId)).toList();
+            return new Snapshot(byId, all, byDifficulty);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.escaperoom.backend.service;
+
+import com.escaperoom.backend.dto.QuestionImportResponse;
+import com.escaperoom.backend.dto.QuestionImportResponse.RowError;
+import com.escaperoom.backend.dto.QuestionRequest;
+import com.escaperoom.backend.model.DifficultyLevel;
+import com.escaperoom.backend.model.Question;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams questions from a JSON array or a CSV file into the {@code questions} table.
+ *
+ * Rows are validated as they are read; valid ones are persisted in chunks of {@link #CHUNK_SIZE}, one
+ * transaction each, and reach the database as JDBC batches using ids pre-allocated from {@code questions_seq}.
+ * A rejected row is reported and skipped. If the database refuses a chunk it is retried row by row, so only the
+ * offending rows are lost. Imported questions reach the {@link QuestionCatalog} in one rebuild at the end.
+ */
+@Service
+public class QuestionImportService {
+
+    public static final int CHUNK_SIZE = 1000;
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionImportService.class);
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final QuestionCatalog questionCatalog;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public QuestionImportService(EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 QuestionCatalog questionCatalog,
+                                 ObjectMapper objectMapper,
+                                 Validator validator) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.questionCatalog = questionCatalog;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    /**
+     * Imports a JSON array of {@link QuestionRequest} objects.
+     */
+    public QuestionImportResponse importJson(InputStream body) {
+        Import run = new Import();
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of questions.");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new EOFException("the question array is not closed");
+                }
+                long row = run.nextRow();
+                JsonNode element = parser.readValueAsTree();
+                try {
+                    run.add(row, objectMapper.treeToValue(element, QuestionRequest.class));
+                } catch (JsonProcessingException e) {
+                    run.reject(row, "Unreadable question: " + e.getOriginalMessage());
+                }
+            }
+        } catch (IOException e) {
+            run.stop(e);
+        } finally {
+            run.finish();
+        }
+        return run.response();
+    }
+
+    /**
+     * Imports CSV records under a header naming the {@link QuestionRequest} fields, in any order; {@code hint}
+     * may be left out.
+     */
+    public QuestionImportResponse importCsv(InputStream body) {
+        Import run = new Import();
+        try {
+            CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+            Map<String, Integer> columns = columns(reader.next());
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                long row = run.nextRow();
+                try {
+                    run.add(row, toRequest(columns, record));
+                } catch (IllegalArgumentException e) {
+                    run.reject(row, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            run.stop(e);
+        } finally {
+            run.finish();
+        }
+        return run.response();
+    }
+
+    private static Map<String, Integer> columns(List<String> header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV header is missing.");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // Spreadsheets like to start UTF-8 files with a byte order mark
+            String name = header.get(i).replace("\uFEFF", "").trim();
+            if (!List.of("questionText", "answer", "hint", "orderNumber", "difficulty").contains(name)) {
+                throw new IllegalArgumentException("Unknown CSV column: " + name);
+            }
+            columns.put(name, i);
+        }
+        for (String required : List.of("questionText", "answer", "orderNumber", "difficulty")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column " + required + ".");
+            }
+        }
+        return columns;
+    }
+
+    private static QuestionRequest toRequest(Map<String, Integer> columns, List<String> record) {
+        if (record.size() != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " fields but found " + record.size() + ".");
+        }
+        QuestionRequest request = new QuestionRequest();
+        request.setQuestionText(record.get(columns.get("questionText")));
+        request.setAnswer(record.get(columns.get("answer")));
+        if (columns.containsKey("hint") && !record.get(columns.get("hint")).isEmpty()) {
+            request.setHint(record.get(columns.get("hint")));
+        }
+        String orderNumber = record.get(columns.get("orderNumber")).trim();
+        try {
+            request.setOrderNumber(Integer.parseInt(orderNumber));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Order number is not a whole number: " + orderNumber);
+        }
+        String difficulty = record.get(columns.get("difficulty")).trim();
+        if (!difficulty.isEmpty()) {
+            try {
+                request.setDifficulty(DifficultyLevel.valueOf(difficulty.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown difficulty: " + difficulty);
+            }
+        }
+        return request;
+    }
+
+    // Persists one chunk in its own transaction; the flush sends the inserts in batches of hibernate.jdbc.batch_size
+    private List<Question> insert(List<Pending> rows) {
+        return transactionTemplate.execute(status -> {
+            List<Question> questions = new ArrayList<>(rows.size());
+            for (Pending pending : rows) {
+                QuestionRequest request = pending.request();
+                Question question = new Question(0, request.getQuestionText(), request.getAnswer(),
+                        request.getHint(), request.getOrderNumber(), request.getDifficulty());
+                entityManager.persist(question);
+                questions.add(question);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return questions;
+        });
+    }
+
+    private record Pending(long row, QuestionRequest request) {
+    }
+
+    // State of one import: the chunk being filled, what was saved, and the rows turned away
+    private final class Import {
+        private final long startedAt = System.nanoTime();
+        private final List<Pending> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final List<Question> saved = new ArrayList<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private long rows;
+        private int failed;
+
+        long nextRow() {
+            return ++rows;
+        }
+
+        void add(long row, QuestionRequest request) {
+            List<String> violations = validator.validate(request).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .toList();
+            if (!violations.isEmpty()) {
+                reject(row, String.join("; ", violations));
+                return;
+            }
+            chunk.add(new Pending(row, request));
+            if (chunk.size() == CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void reject(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row, message));
+            }
+        }
+
+        // Unreadable input ends the import; rows read before it are still saved
+        void stop(IOException e) {
+            reject(rows + 1, "Import stopped, input is malformed: " + e.getMessage());
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                saved.addAll(insert(chunk));
+            } catch (PersistenceException | DataAccessException e) {
+                // One bad row rolls back its whole chunk; insert the rows one by one to single it out
+                for (Pending pending : chunk) {
+                    try {
+                        saved.addAll(insert(List.of(pending)));
+                    } catch (PersistenceException | DataAccessException rowFailure) {
+                        reject(pending.row(), "Rejected by the database: "
+                                + NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                    }
+                }
+            }
+            chunk.clear();
+        }
+
+        void finish() {
+            try {
+                flush();
+            } finally {
+                questionCatalog.putAll(saved);
+                log.info("Imported {} questions, rejected {} rows in {} ms", saved.size(), failed,
+                        (System.nanoTime() - startedAt) / 1_000_000);
+            }
+        }
+
+        QuestionImportResponse response() {
+            // Rows refused by the database are only known once their chunk is written
+            errors.sort(Comparator.comparingLong(RowError::row));
+            return new QuestionImportResponse(saved.size(), failed, errors);
+        }
+    }
+
+    // RFC 4180 records: comma separated, quoted fields may hold commas, line breaks and "" for a quote
+    private static final class CsvReader {
+        private final Reader in;
+        private int pushedBack = -2;
+
+        CsvReader(Reader in) {
+            this.in = in;
+        }
+
+        /**
+         * The fields of the next record, or null at the end of the input.
+         */
+        List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("unterminated quoted field");
+                    }
+                    if (c == '"') {
+                        int after = read();
+                        if (after != '"') {
+                            quoted = false;
+                            c = after;
+                            continue;
+                        }
+                    }
+                    field.append((char) c);
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r' || c == -1) {
+                    if (c == '\r') {
+                        int after = read();
+                        if (after != '\n') {
+                            pushedBack = after;
+                        }
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (pushedBack != -2) {
+                int c = pushedBack;
+                pushedBack = -2;
+                return c;
+            }
+            return in.read();
+        }
+    }
+}
@@ -1,24 +1,39 @@
 package com.escaperoom.backend.service;
 
 import com.escaperoom.backend.dto.QuestionRequest;
+import com.escaperoom.backend.model.DifficultyLevel;
 import com.escaperoom.backend.model.Question;
 import com.escaperoom.backend.repo.QuestionRepo;
 import jakarta.validation.Valid;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 @Service
 public class QuestionService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final QuestionRepo questionRepo;
+    private final QuestionCatalog questionCatalog;
 
-    public QuestionService(QuestionRepo questionRepo) {
+    public QuestionService(QuestionRepo questionRepo, QuestionCatalog questionCatalog) {
         this.questionRepo = questionRepo;
+        this.questionCatalog = questionCatalog;
     }
 
     public List<Question> getAllQuestions() {
-        return questionRepo.findAll();
+        return questionCatalog.all();
+    }
+
+    public List<Question> getQuestionsAfter(Long after, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+        return questionCatalog.pageAfter(after, Math.min(limit, MAX_PAGE_SIZE));
     }
 
 
@@ -30,17 +45,29 @@ public class QuestionService {
         question.setAnswer(request.getAnswer());
         question.setOrderNumber(request.getOrderNumber());
 
-        return questionRepo.save(question);
+        Question saved = questionRepo.save(question);
+        questionCatalog.put(saved);
+        return saved;
+    }
+
+    /**
+     * Deals {@code count} distinct questions of one difficulty; the same seed deals the same questions
+     * as long as the catalog does not change.
+     */
+    public List<Question> dealQuestions(DifficultyLevel difficulty, int count, Long seed) {
+        RandomGenerator random = seed == null ? ThreadLocalRandom.current() : new SplittableRandom(seed);
+        return questionCatalog.deal(difficulty, count, random);
     }
 
     public Question getQuestionById(Long id) {
-        return questionRepo.findById(id)
+        return questionCatalog.find(id)
                 .orElseThrow(() -> new RuntimeException("Question not found with id: " + id));
     }
 
     public boolean deleteQuestionById(Long id) {
         if(questionRepo.existsById(id)) {
             questionRepo.deleteById(id);
+            questionCatalog.remove(id);
             return true;
         }
         return false;
@@ -54,7 +81,9 @@ public class QuestionService {
                     existing.setHint(questionRequest.getHint());
                     existing.setOrderNumber(questionRequest.getOrderNumber());
                     existing.setDifficulty(questionRequest.getDifficulty());
-                    return questionRepo.save(existing);
+                    Question saved = questionRepo.save(existing);
+                    questionCatalog.put(saved);
+                    return saved;
                 })
                 .orElse(null);
     }
@@ -0,0 +1,294 @@
+package com.escaperoom.backend.service;
+
+import com.escaperoom.backend.model.GameSession;
+import com.escaperoom.backend.model.GameStage;
+import com.escaperoom.backend.model.InspectionKeys;
+import com.escaperoom.backend.model.RoomDefinition;
+import com.escaperoom.backend.model.RoomTexts;
+import com.escaperoom.backend.model.SessionFlag;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A {@link RoomDefinition} compiled into immutable tables.
+ *
+ * Stages are indexed by {@link GameStage} ordinal. Locks and items are resolved once from their API
+ * names to array slots. Every condition is reduced to a required-stage index plus two flag masks, so
+ * applying an action is a table lookup and a few mask tests on {@code GameSession.stateFlags}.
+ * Inspection texts live in {@link NarrativeTexts}; rules only hold the index of their text pool, and the
+ * inspectable stages and areas in the engine's own {@link InspectionKeys}.
+ */
+public final class RoomEngine {
+
+    private static final GameStage[] STAGES = GameStage.values();
+    private static final int ANY_STAGE = -1;
+
+    private final NarrativeTexts texts;
+    private final InspectionKeys inspectionKeys;
+    private final long[] enterRequires;
+    private final Script[] scripts;
+    private final Map<String, Integer> lockSlots;
+    private final Lock[] locks;
+    private final Map<String, Integer> itemSlots;
+    private final ItemUse[][] itemUses;
+
+    private RoomEngine(NarrativeTexts texts, InspectionKeys inspectionKeys, long[] enterRequires, Script[] scripts,
+                       Map<String, Integer> lockSlots, Lock[] locks,
+                       Map<String, Integer> itemSlots, ItemUse[][] itemUses) {
+        this.texts = texts;
+        this.inspectionKeys = inspectionKeys;
+        this.enterRequires = enterRequires;
+        this.scripts = scripts;
+        this.lockSlots = lockSlots;
+        this.locks = locks;
+        this.itemSlots = itemSlots;
+        this.itemUses = itemUses;
+    }
+
+    public InspectionKeys inspectionKeys() {
+        return inspectionKeys;
+    }
+
+    public String lockName(String lockType) {
+        Integer slot = lockType == null ? null : lockSlots.get(lockType);
+        return slot == null ? null : locks[slot].name;
+    }
+
+    /**
+     * Tries {@code answer} on a lock; on success sets the lock's flags and moves the session on if the lock leads somewhere.
+     */
+    public boolean unlock(GameSession session, String lockType, String answer) {
+        Integer slot = lockType == null ? null : lockSlots.get(lockType);
+        if (slot == null || answer == null) {
+            return false;
+        }
+        Lock lock = locks[slot];
+        if (!lock.condition.matches(session) || !lock.code.equals(answer.trim())) {
+            return false;
+        }
+        session.setStateFlags(session.getStateFlags() | lock.sets);
+        if (lock.moveTo != ANY_STAGE && (lock.moveFrom == ANY_STAGE || lock.moveFrom == session.getStage().ordinal())) {
+            session.setStage(STAGES[lock.moveTo]);
+        }
+        return true;
+    }
+
+    public boolean useItem(GameSession session, String item, String target) {
+        Integer slot = item == null ? null : itemSlots.get(item.toLowerCase(Locale.ROOT));
+        if (slot == null) {
+            return false;
+        }
+        for (ItemUse use : itemUses[slot]) {
+            if (use.condition.matches(session) && use.accepts(target)) {
+                session.setStateFlags(session.getStateFlags() | use.sets);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean canEnter(GameSession session, GameStage target) {
+        long required = enterRequires[target.ordinal()];
+        return (session.getStateFlags() & required) == required;
+    }
+
+    /**
+     * Picks the inspection text for the {@code count}-th inspection of {@code stage} and applies the
+     * stage's inspection effects (e.g. finding the rod). {@code roll} chooses among the texts of a pool.
+     */
+    public String inspect(GameSession session, String stage, int count, Locale locale, long roll) {
+        GameStage inspected = GameStage.fromName(stage);
+        Script script = inspected == null ? null : scripts[inspected.ordinal()];
+        if (script == null) {
+            return texts.unknownStageText(locale);
+        }
+
+        String text = null;
+        for (Rule rule : script.rules) {
+            if (rule.matches(session, count)) {
+                text = texts.text(rule.pool, locale, roll);
+                break;
+            }
+        }
+        if (text == null) {
+            text = texts.unknownStageText(locale);
+        }
+        for (Effect effect : script.effects) {
+            if (effect.matches(session, count)) {
+                session.setStateFlags(session.getStateFlags() | effect.sets);
+            }
+        }
+        return text;
+    }
+
+    public static RoomEngine compile(RoomDefinition definition) {
+        return compile(definition, List.of());
+    }
+
+    public static RoomEngine compile(RoomDefinition definition, List<RoomTexts> bundles) {
+        long[] enterRequires = new long[STAGES.length];
+        Script[] scripts = new Script[STAGES.length];
+        List<String[]> pools = new ArrayList<>();
+        Map<String, Integer> poolKeys = new HashMap<>();
+        InspectionKeys inspectionKeys = new InspectionKeys();
+        for (RoomDefinition.Stage stage : definition.getStages()) {
+            int index = stageIndex(stage.getName(), "stage");
+            if (scripts[index] != null) {
+                throw new IllegalArgumentException("Stage " + stage.getName() + " is defined twice");
+            }
+            enterRequires[index] = mask(stage.getEnterRequires());
+            inspectionKeys.declare(stage.getName(), InspectionKeys.DEFAULT_AREA);
+            if (stage.getInspection() != null) {
+                stage.getInspection().getAreas().forEach(area -> inspectionKeys.declare(stage.getName(), area));
+            }
+            scripts[index] = compileScript(stage, pools, poolKeys);
+        }
+        NarrativeTexts texts = NarrativeTexts.build(definition.getUnknownStageText(),
+                pools.toArray(String[][]::new), poolKeys, bundles);
+        for (int i = 0; i < scripts.length; i++) {
+            if (scripts[i] != null && scripts[i].rules.length == 0) {
+                scripts[i] = null;
+            }
+        }
+
+        Map<String, Integer> lockSlots = new HashMap<>();
+        Lock[] locks = new Lock[definition.getLocks().size()];
+        for (int i = 0; i < locks.length; i++) {
+            RoomDefinition.Lock lock = definition.getLocks().get(i);
+            if (lock.getId() == null || lock.getCode() == null || lock.getCode().isBlank()) {
+                throw new IllegalArgumentException("Lock #" + (i + 1) + " needs an id and a code");
+            }
+            if (lockSlots.put(lock.getId(), i) != null) {
+                throw new IllegalArgumentException("Lock " + lock.getId() + " is defined twice");
+            }
+            locks[i] = new Lock(
+                    lock.getName(),
+                    lock.getCode(),
+                    new Condition(optionalStageIndex(lock.getStage()), mask(lock.getRequires()), 0L),
+                    mask(lock.getSets()),
+                    optionalStageIndex(lock.getMoveFrom()),
+                    optionalStageIndex(lock.getMoveTo()));
+        }
+
+        Map<String, Integer> itemSlots = new HashMap<>();
+        ItemUse[][] itemUses = new ItemUse[definition.getItems().size()][];
+        for (int i = 0; i < itemUses.length; i++) {
+            RoomDefinition.Item item = definition.getItems().get(i);
+            for (String name : item.getNames()) {
+                if (itemSlots.put(name.toLowerCase(Locale.ROOT), i) != null) {
+                    throw new IllegalArgumentException("Item name " + name + " is used twice");
+                }
+            }
+            itemUses[i] = item.getUses().stream()
+                    .map(use -> new ItemUse(
+                            new Condition(optionalStageIndex(use.getStage()), mask(use.getRequires()), mask(use.getForbids())),
+                            use.getTargets().stream().map(target -> target.toLowerCase(Locale.ROOT)).toArray(String[]::new),
+                            use.isTargetOptional(),
+                            mask(use.getSets())))
+                    .toArray(ItemUse[]::new);
+        }
+
+        return new RoomEngine(texts, inspectionKeys, enterRequires, scripts,
+                Map.copyOf(lockSlots), locks, Map.copyOf(itemSlots), itemUses);
+    }
+
+    private static Script compileScript(RoomDefinition.Stage stage, List<String[]> pools, Map<String, Integer> poolKeys) {
+        RoomDefinition.Inspection inspection = stage.getInspection();
+        if (inspection == null) {
+            return new Script(new Rule[0], new Effect[0]);
+        }
+        Rule[] rules = inspection.getRules().stream()
+                .map(rule -> {
+                    if (rule.getTexts().isEmpty()) {
+                        throw new IllegalArgumentException("Inspection rule of stage " + stage.getName() + " has no texts");
+                    }
+                    int pool = pools.size();
+                    pools.add(rule.getTexts().toArray(String[]::new));
+                    if (rule.getKey() != null && poolKeys.put(rule.getKey(), pool) != null) {
+                        throw new IllegalArgumentException("Text key " + rule.getKey() + " is used twice");
+                    }
+                    return new Rule(rule.getMinCount(), rule.getMaxCount(),
+                            new Condition(ANY_STAGE, mask(rule.getRequires()), mask(rule.getForbids())),
+                            pool);
+                })
+                .toArray(Rule[]::new);
+        Effect[] effects = inspection.getEffects().stream()
+                .map(effect -> new Effect(effect.getMinCount(), effect.getMaxCount(),
+                        new Condition(ANY_STAGE, mask(effect.getRequires()), mask(effect.getForbids())),
+                        mask(effect.getSets())))
+                .toArray(Effect[]::new);
+        return new Script(rules, effects);
+    }
+
+    private static int stageIndex(String name, String what) {
+        GameStage stage = GameStage.fromName(name);
+        if (stage == null) {
+            throw new IllegalArgumentException("Unknown " + what + " in room definition: " + name);
+        }
+        return stage.ordinal();
+    }
+
+    private static int optionalStageIndex(String name) {
+        return name == null ? ANY_STAGE : stageIndex(name, "stage");
+    }
+
+    private static long mask(List<String> flags) {
+        long mask = 0L;
+        for (String flag : flags) {
+            try {
+                mask |= SessionFlag.valueOf(flag).mask();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown flag in room definition: " + flag);
+            }
+        }
+        return mask;
+    }
+
+    private record Condition(int stage, long requires, long forbids) {
+        boolean matches(GameSession session) {
+            long flags = session.getStateFlags();
+            return (stage == ANY_STAGE || stage == session.getStage().ordinal())
+                    && (flags & requires) == requires
+                    && (flags & forbids) == 0;
+        }
+    }
+
+    private record Script(Rule[] rules, Effect[] effects) {
+    }
+
+    private record Rule(int minCount, int maxCount, Condition condition, int pool) {
+        boolean matches(GameSession session, int count) {
+            return count >= minCount && count <= maxCount && condition.matches(session);
+        }
+    }
+
+    private record Effect(int minCount, int maxCount, Condition condition, long sets) {
+        boolean matches(GameSession session, int count) {
+            return count >= minCount && count <= maxCount && condition.matches(session);
+        }
+    }
+
+    private record Lock(String name, String code, Condition condition, long sets, int moveFrom, int moveTo) {
+    }
+
+    private record ItemUse(Condition condition, String[] targets, boolean targetOptional, long sets) {
+        boolean accepts(String target) {
+            if (target == null) {
+                return targetOptional || targets.length == 0;
+            }
+            if (targets.length == 0) {
+                return true;
+            }
+            for (String accepted : targets) {
+                if (accepted.equalsIgnoreCase(target)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.escaperoom.backend.service;
+
+import com.escaperoom.backend.repo.DbRoundTrips;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * Optional per-session mailboxes: every game action on a session is queued and applied in arrival
+ * order by a single virtual thread, so actions on one session never overlap and never contend on
+ * the session's row or monitor, while different sessions run in parallel.
+ *
+ * A mailbox exists only while it has work. Its virtual thread removes it once the queue is drained,
+ * so idle sessions cost nothing.
+ */
+@Component
+public class SessionMailboxes {
+
+    private final boolean enabled;
+
+    // A session is present exactly while a virtual thread is draining its mailbox
+    private final ConcurrentHashMap<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    public SessionMailboxes(@Value("${escaperoom.game-actions.mailboxes.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs {@code task} in the session's mailbox and waits for its result. Exceptions thrown by the task
+     * are rethrown unchanged on the calling thread.
+     */
+    public <T> T call(Long sessionId, Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        int[] roundTrips = new int[2];
+        Runnable job = () -> {
+            DbRoundTrips.reset();
+            T value = null;
+            Throwable failure = null;
+            try {
+                value = task.get();
+            } catch (Throwable e) {
+                failure = e;
+            }
+            // Recorded before completing, so the caller sees them once join() returns
+            roundTrips[0] = DbRoundTrips.reads();
+            roundTrips[1] = DbRoundTrips.writes();
+            if (failure == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(failure);
+            }
+        };
+
+        boolean[] started = {false};
+        Mailbox mailbox = mailboxes.compute(sessionId, (id, existing) -> {
+            Mailbox box = existing;
+            if (box == null) {
+                box = new Mailbox(id);
+                started[0] = true;
+            }
+            box.queue.add(job);
+            return box;
+        });
+        if (started[0]) {
+            Thread.ofVirtual().name("session-" + sessionId).start(mailbox::drain);
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        } finally {
+            DbRoundTrips.add(roundTrips[0], roundTrips[1]);
+        }
+    }
+
+    public int activeMailboxes() {
+        return mailboxes.size();
+    }
+
+    private final class Mailbox {
+        private final Long sessionId;
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+
+        private Mailbox(Long sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        private void drain() {
+            do {
+                Runnable job;
+                while ((job = queue.poll()) != null) {
+                    job.run();
+                }
+                // Removal happens under the map's lock for this key, so a concurrent call() either
+                // lands in this queue before the check or creates a fresh mailbox afterwards
+            } while (mailboxes.computeIfPresent(sessionId, (id, box) -> box.queue.isEmpty() ? null : box) != null);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.escaperoom.backend.service;
+
+import com.escaperoom.backend.config.SessionRetentionProperties;
+import com.escaperoom.backend.model.GameStage;
+import com.escaperoom.backend.repo.GameSessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Deletes game sessions nobody is coming back to: ESCAPED ones after {@code escaped-after}, unfinished ones
+ * after {@code abandoned-after}, both counted from {@code lastUpdated}. Finished runs live on in
+ * {@code escape_runs}, so nothing a player can still look at is lost.
+ *
+ * Each run deletes oldest first in batches of {@code batch-size}, one short transaction per batch, sleeps
+ * {@code batch-delay} between batches and stops after {@code max-batches-per-run}; a backlog is worked off over
+ * several runs instead of holding many row locks during play. Sessions the {@link GameSessionStore} holds with
+ * unsaved changes or an open connection are left alone. Deleted rows are counted per policy as
+ * {@code escaperoom.sessions.reaped}, and batch durations are timed as {@code escaperoom.sessions.reap.batch}.
+ */
+@Component
+public class SessionReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionReaper.class);
+
+    private static final String REAPED_METRIC = "escaperoom.sessions.reaped";
+    private static final String BATCH_METRIC = "escaperoom.sessions.reap.batch";
+
+    private final SessionRetentionProperties properties;
+    private final GameSessionRepository gameSessionRepository;
+    private final GameSessionStore gameSessionStore;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public SessionReaper(SessionRetentionProperties properties,
+                         GameSessionRepository gameSessionRepository,
+                         GameSessionStore gameSessionStore,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.gameSessionRepository = gameSessionRepository;
+        this.gameSessionStore = gameSessionStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(initialDelayString = "${escaperoom.session-retention.initial-delay:1m}",
+            fixedDelayString = "${escaperoom.session-retention.interval:10m}")
+    public void reap() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Instant now = Instant.now();
+        Run run = new Run(properties.getMaxBatchesPerRun());
+        long escaped = reap(run, "escaped", GameStage.ESCAPED, now.minus(properties.getEscapedAfter()));
+        long abandoned = 0;
+        for (GameStage stage : GameStage.values()) {
+            if (stage != GameStage.ESCAPED) {
+                abandoned += reap(run, "abandoned", stage, now.minus(properties.getAbandonedAfter()));
+            }
+        }
+        if (escaped + abandoned > 0) {
+            log.info("Reaped {} escaped and {} abandoned game session(s) in {} batch(es)",
+                    escaped, abandoned, properties.getMaxBatchesPerRun() - run.batchesLeft);
+        }
+    }
+
+    private long reap(Run run, String policy, GameStage stage, Instant cutoff) {
+        int batchSize = properties.getBatchSize();
+        Timer batchTimer = meterRegistry.timer(BATCH_METRIC, "policy", policy);
+        long reaped = 0;
+        while (run.batchesLeft > 0 && run.pause()) {
+            run.batchesLeft--;
+            int[] found = {0};
+            int deleted = batchTimer.record(() -> transactionTemplate.execute(status -> {
+                List<Long> ids = gameSessionRepository.findIdsUpdatedBefore(stage, cutoff, Limit.of(batchSize));
+                found[0] = ids.size();
+                List<Long> idle = ids.stream().filter(gameSessionStore::release).toList();
+                return idle.isEmpty() ? 0 : gameSessionRepository.deleteUpdatedBefore(idle, stage, cutoff);
+            }));
+            meterRegistry.counter(REAPED_METRIC, "policy", policy).increment(deleted);
+            reaped += deleted;
+            // A short batch was the last one; an all-skipped batch would only find the same rows again
+            if (found[0] < batchSize || deleted == 0) {
+                break;
+            }
+        }
+        return reaped;
+    }
+
+    // Batch budget of one run, shared by all policies
+    private final class Run {
+        private int batchesLeft;
+        private boolean started;
+
+        private Run(int batchesLeft) {
+            this.batchesLeft = batchesLeft;
+        }
+
+        // Sleeps before every batch but the first; false if the thread was interrupted
+        boolean pause() {
+            Duration delay = properties.getBatchDelay();
+            if (!started || delay.isZero()) {
+                started = true;
+                return true;
+            }
+            try {
+                Thread.sleep(delay);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
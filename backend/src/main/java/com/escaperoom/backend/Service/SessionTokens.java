@@ -0,0 +1,110 @@
+package com.escaperoom.backend.service;
+
+import com.escaperoom.backend.config.AuthTokenProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues and checks session tokens: {@code base64url(userId, expiry)} + "." + {@code base64url(HMAC-SHA256)}.
+ *
+ * A token proves who the caller is without a database lookup; it cannot be revoked before it expires.
+ */
+@Component
+public class SessionTokens {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionTokens.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int PAYLOAD_BYTES = 3 * Long.BYTES;     // user id, then expiry in epoch seconds
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+    // Mac instances are not thread-safe
+    private final ThreadLocal<Mac> macs;
+
+    public SessionTokens(AuthTokenProperties properties) {
+        byte[] secret;
+        if (properties.getTokenSecret() == null || properties.getTokenSecret().isBlank()) {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            log.warn("escaperoom.auth.token-secret is not set; session tokens will not survive a restart");
+        } else {
+            secret = Base64.getDecoder().decode(properties.getTokenSecret());
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.ttlSeconds = properties.getTokenTtl().toSeconds();
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String issue(UUID userId) {
+        byte[] payload = ByteBuffer.allocate(PAYLOAD_BYTES)
+                .putLong(userId.getMostSignificantBits())
+                .putLong(userId.getLeastSignificantBits())
+                .putLong(System.currentTimeMillis() / 1000 + ttlSeconds)
+                .array();
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    /**
+     * The user a token was issued to, or empty if it is malformed, forged or expired.
+     */
+    public Optional<UUID> verify(String token) {
+        return read(token).filter(claims -> !claims.expired()).map(Claims::userId);
+    }
+
+    /**
+     * What a token genuinely issued here says, expired or not; empty if it is malformed or forged.
+     */
+    public Optional<Claims> read(String token) {
+        int dot = token.indexOf('.');
+        if (dot < 0) {
+            return Optional.empty();
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (payload.length != PAYLOAD_BYTES || !MessageDigest.isEqual(signature, sign(payload))) {
+            return Optional.empty();
+        }
+        ByteBuffer fields = ByteBuffer.wrap(payload);
+        UUID userId = new UUID(fields.getLong(), fields.getLong());
+        long expiresAt = fields.getLong();
+        return Optional.of(new Claims(userId, expiresAt <= System.currentTimeMillis() / 1000));
+    }
+
+    public record Claims(UUID userId, boolean expired) {
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot create " + ALGORITHM, e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.escaperoom.backend.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size-bounded map split into independently locked shards, each dropping its least recently used entry once
+ * full, so threads working on different keys rarely contend.
+ *
+ * Callers hold the shard's monitor around every access, {@code synchronized (map.shard(key)) { ... }}, which also
+ * lets them read and update an entry in one step.
+ */
+final class ShardedLru<K, V> {
+
+    private final Shard<K, V>[] shards;
+
+    /**
+     * @param shardCount a power of two
+     * @param maxEntries spread evenly over the shards
+     */
+    @SuppressWarnings("unchecked")
+    ShardedLru(int shardCount, int maxEntries) {
+        if (Integer.bitCount(shardCount) != 1) {
+            throw new IllegalArgumentException("Shard count must be a power of two: " + shardCount);
+        }
+        int perShard = Math.max(1, maxEntries / shardCount);
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard<>(perShard);
+        }
+    }
+
+    Map<K, V> shard(K key) {
+        int h = key.hashCode();
+        return shards[(h ^ (h >>> 16)) & (shards.length - 1)];
+    }
+
+    int size() {
+        int size = 0;
+        for (Shard<K, V> shard : shards) {
+            synchronized (shard) {
+                size += shard.size();
+            }
+        }
+        return size;
+    }
+
+    // Access-ordered, drops the least recently used entry once full; guarded by the shard itself
+    private static final class Shard<K, V> extends LinkedHashMap<K, V> {
+        private final int capacity;
+
+        Shard(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -1,46 +1,99 @@
 package com.escaperoom.backend.service;
 
+import com.escaperoom.backend.dto.UserResponse;
 import com.escaperoom.backend.model.User;
 import com.escaperoom.backend.repo.UserRepo;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 
 @Service
 public class UserService {
+
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final UserRepo repo;
     private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate readOnlyTransaction;
+    private final IdentityCache identityCache;
 
     @Autowired
-    public UserService(UserRepo repo, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepo repo,
+                       PasswordEncoder passwordEncoder,
+                       PlatformTransactionManager transactionManager,
+                       IdentityCache identityCache) {
         this.repo = repo;
         this.passwordEncoder = passwordEncoder;
+        this.identityCache = identityCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     public boolean verifyCredentials(String email, String rawPassword) {
-        return repo.findByEmail(email)
-                .map(user -> passwordEncoder.matches(rawPassword, user.getPassword()))
-                .orElse(false);
+        return authenticate(email, rawPassword).isPresent();
+    }
+
+    // Needs the password hash, so always reads the user; the identity is cached for the requests that follow
+    public Optional<User> authenticate(String email, String rawPassword) {
+        Optional<User> user = repo.findByEmail(email)
+                .filter(candidate -> passwordEncoder.matches(rawPassword, candidate.getPassword()));
+        user.ifPresent(found -> identityCache.put(new UserResponse(found.getId(), found.getEmail())));
+        return user;
+    }
+
+    public boolean exists(UUID userId) {
+        return identityCache.byId(userId, repo::findIdentityById).isPresent();
     }
 
     public User createUser(@Email @NotBlank String email, @NotBlank String password) {
         User user = new User();
         user.setEmail(email);
         user.setPassword(passwordEncoder.encode(password));
-        return repo.save(user);
+        User saved = repo.save(user);
+        identityCache.put(new UserResponse(saved.getId(), saved.getEmail()));
+        return saved;
+    }
+
+    /**
+     * Up to {@code limit} users ordered by id, starting after {@code after} (from the first user if null).
+     */
+    public List<UserResponse> getUsersAfter(UUID after, int limit) {
+        Limit pageLimit = Limit.of(pageSize(limit));
+        return after == null ? repo.findPage(pageLimit) : repo.findPageAfter(after, pageLimit);
+    }
+
+    /**
+     * Passes every user to {@code action} in id order, reading them through a database cursor so only a
+     * fetch's worth of rows is in memory at a time.
+     */
+    public void forEachUser(Consumer<UserResponse> action) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<UserResponse> users = repo.streamAll()) {
+                users.forEach(action);
+            }
+        });
     }
 
-    public List<User> getAllUsers() {
-        return repo.findAll();
+    public Optional<UserResponse> findIdentity(String email) {
+        return identityCache.byEmail(email, repo::findIdentityByEmail);
     }
 
-    public Optional<User> findByEmail(String email) {
-        return repo.findByEmail(email);
+    private static int pageSize(int requested) {
+        if (requested < 1) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+        return Math.min(requested, MAX_PAGE_SIZE);
     }
 }
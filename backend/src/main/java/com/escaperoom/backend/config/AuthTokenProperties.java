@@ -0,0 +1,22 @@
+package com.escaperoom.backend.config;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Signed session tokens ({@code escaperoom.auth.*}) issued at login and sent back as {@code Authorization: Bearer}.
+ */
+@ConfigurationProperties("escaperoom.auth")
+@Getter
+@Setter
+@NoArgsConstructor
+public class AuthTokenProperties {
+
+    private String tokenSecret;                         // base64 HMAC key; random per start when unset
+    private Duration tokenTtl = Duration.ofHours(12);
+    private boolean requireToken = false;               // when false, a raw userId parameter is still accepted
+}
@@ -0,0 +1,34 @@
+package com.escaperoom.backend.config;
+
+import com.escaperoom.backend.repo.DbRoundTrips;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty("escaperoom.diagnostics.db-round-trip-headers")
+public class DbRoundTripConfig implements WebMvcConfigurer {
+
+    @Bean
+    public HibernatePropertiesCustomizer dbRoundTripInspector() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new DbRoundTrips());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                DbRoundTrips.reset();
+                return true;
+            }
+        });
+    }
+}
@@ -0,0 +1,40 @@
+package com.escaperoom.backend.config;
+
+import com.escaperoom.backend.repo.DbRoundTrips;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the per-request database round-trip counts to every response body written by a controller.
+ * A diagnostic for tests and load runs, off unless {@code escaperoom.diagnostics.db-round-trip-headers} is set.
+ */
+@ControllerAdvice
+@ConditionalOnProperty("escaperoom.diagnostics.db-round-trip-headers")
+public class DbRoundTripHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String READS_HEADER = "X-Db-Reads";
+    public static final String WRITES_HEADER = "X-Db-Writes";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body,
+                                  MethodParameter returnType,
+                                  MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request,
+                                  ServerHttpResponse response) {
+        response.getHeaders().set(READS_HEADER, Integer.toString(DbRoundTrips.reads()));
+        response.getHeaders().set(WRITES_HEADER, Integer.toString(DbRoundTrips.writes()));
+        return body;
+    }
+}
@@ -0,0 +1,23 @@
+package com.escaperoom.backend.config;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Bounds of the in-memory user identity cache ({@code escaperoom.identity-cache.*}).
+ */
+@ConfigurationProperties("escaperoom.identity-cache")
+@Getter
+@Setter
+@NoArgsConstructor
+public class IdentityCacheProperties {
+
+    private boolean enabled = true;
+    private int maxEntries = 100_000;                       // per lookup (by email, by id)
+    private Duration ttl = Duration.ofMinutes(10);
+    private Duration negativeTtl = Duration.ofSeconds(30);  // how long an unknown email or id is remembered
+}
@@ -0,0 +1,92 @@
+package com.escaperoom.backend.config;
+
+import com.escaperoom.backend.model.QuestionIdsConverter;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Migration V4: moves each run's question ids from the {@code escape_run_questions} join table into the
+ * inline {@code escape_runs.question_ids} column (see {@link QuestionIdsConverter}), then drops the table.
+ */
+@Component
+public class InlineRunQuestionsMigration implements JavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(InlineRunQuestionsMigration.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("4");
+    }
+
+    @Override
+    public String getDescription() {
+        return "inline escape run question ids";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+        jdbcTemplate.execute("ALTER TABLE escape_runs ADD COLUMN question_ids BYTEA");
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        List<Long> questionIds = new ArrayList<>();
+        long[] run = {-1};
+        int[] migrated = {0};
+        // Rows arrive grouped by run and in question order; a run is written once the next one starts
+        jdbcTemplate.query("SELECT escape_run_id, question_id FROM escape_run_questions ORDER BY escape_run_id, idx", rs -> {
+            long runId = rs.getLong(1);
+            if (runId != run[0] && !questionIds.isEmpty()) {
+                migrated[0] += add(jdbcTemplate, batch, run[0], questionIds);
+            }
+            run[0] = runId;
+            questionIds.add(rs.getLong(2));
+        });
+        if (!questionIds.isEmpty()) {
+            migrated[0] += add(jdbcTemplate, batch, run[0], questionIds);
+        }
+        write(jdbcTemplate, batch);
+
+        // Runs never get saved without questions, but the column must not be left null for any row
+        jdbcTemplate.update("UPDATE escape_runs SET question_ids = ? WHERE question_ids IS NULL", (Object) new byte[0]);
+        jdbcTemplate.execute("ALTER TABLE escape_runs ALTER COLUMN question_ids SET NOT NULL");
+        jdbcTemplate.execute("DROP TABLE escape_run_questions");
+        log.info("Moved question ids of {} escape run(s) inline", migrated[0]);
+    }
+
+    private int add(JdbcTemplate jdbcTemplate, List<Object[]> batch, long runId, List<Long> questionIds) {
+        batch.add(new Object[]{QuestionIdsConverter.encode(questionIds), runId});
+        questionIds.clear();
+        if (batch.size() == BATCH_SIZE) {
+            write(jdbcTemplate, batch);
+        }
+        return 1;
+    }
+
+    private void write(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE escape_runs SET question_ids = ? WHERE id = ?", batch);
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.escaperoom.backend.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Migration V2: moves {@code game_sessions} rows written by older versions onto the current columns:
+ * <ul>
+ *     <li>the per-flag Boolean columns and the {@code current_stage} VARCHAR are folded into
+ *     the packed {@code state_flags} / {@code stage} columns</li>
+ *     <li>the JSON {@code inspection_counts} TEXT column is re-encoded into the binary
+ *     {@code inspection_counters} column</li>
+ * </ul>
+ * It first adds the current columns. Databases created by Hibernate's schema update are baselined at V1
+ * whatever state they are in and may already have some of them, so each is added only if missing.
+ *
+ * The flag bits, stage numbers and counters format are spelled out here as they were at V2 rather than taken
+ * from {@code SessionFlag}, {@code GameStage} and {@code InspectionCounters}, so later changes to those cannot
+ * change what this migration writes.
+ */
+@Component
+public class LegacyGameSessionMigration implements JavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyGameSessionMigration.class);
+
+    // Legacy Boolean column -> its bit in state_flags
+    private static final Map<String, Integer> LEGACY_FLAG_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        LEGACY_FLAG_COLUMNS.put("has_rod", 0);
+        LEGACY_FLAG_COLUMNS.put("has_desk_key", 1);
+        LEGACY_FLAG_COLUMNS.put("has_metal_piece", 2);
+        LEGACY_FLAG_COLUMNS.put("cell_drawer_unlocked", 3);
+        LEGACY_FLAG_COLUMNS.put("cell_door_unlocked", 4);
+        LEGACY_FLAG_COLUMNS.put("desk_drawer_unlocked", 5);
+        LEGACY_FLAG_COLUMNS.put("final_door_unlocked", 6);
+    }
+
+    // Legacy current_stage name -> stage number; anything else becomes the first stage
+    private static final Map<String, Integer> LEGACY_STAGES = Map.of("CELL", 0, "DESK", 1, "ESCAPED", 2);
+
+    private static final String LEGACY_STAGE_COLUMN = "current_stage";
+    private static final String LEGACY_COUNTS_COLUMN = "inspection_counts";
+    private static final int BATCH_SIZE = 500;
+    // inspection_counters layout: version byte, entry count (unsigned short), then per entry UTF stage, UTF area, int count
+    private static final byte COUNTERS_FORMAT_VERSION = 1;
+
+    // Columns added to game_sessions since the legacy layout of V1
+    private static final Map<String, String> CURRENT_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        CURRENT_COLUMNS.put("stage", "SMALLINT DEFAULT 0 NOT NULL CHECK (stage BETWEEN 0 AND 2)");
+        CURRENT_COLUMNS.put("state_flags", "BIGINT DEFAULT 0 NOT NULL");
+        CURRENT_COLUMNS.put("inspection_counters", "BYTEA");
+        CURRENT_COLUMNS.put("state_version", "BIGINT DEFAULT 0 NOT NULL");
+        CURRENT_COLUMNS.put("lock_version", "BIGINT DEFAULT 0 NOT NULL");
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("2");
+    }
+
+    @Override
+    public String getDescription() {
+        return "fold legacy game session columns";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+        CURRENT_COLUMNS.forEach((column, definition) ->
+                jdbcTemplate.execute("ALTER TABLE game_sessions ADD COLUMN IF NOT EXISTS " + column + " " + definition));
+        if (hasColumn(jdbcTemplate, LEGACY_STAGE_COLUMN)) {
+            migrateStateColumns(jdbcTemplate);
+        }
+        if (hasColumn(jdbcTemplate, LEGACY_COUNTS_COLUMN)) {
+            migrateInspectionCounts(jdbcTemplate);
+        }
+    }
+
+    private void migrateStateColumns(JdbcTemplate jdbcTemplate) {
+        // The masks are disjoint bits, so + gives the same as | (which H2 lacks); columns are dropped one by one for the same reason
+        StringJoiner flags = new StringJoiner(" + ", "(", ")");
+        LEGACY_FLAG_COLUMNS.forEach((column, bit) ->
+                flags.add("(CASE WHEN " + column + " THEN " + (1L << bit) + " ELSE 0 END)"));
+
+        StringJoiner stage = new StringJoiner(" ", "CASE " + LEGACY_STAGE_COLUMN + " ", " ELSE 0 END");
+        LEGACY_STAGES.forEach((name, number) -> stage.add("WHEN '" + name + "' THEN " + number));
+
+        int rows = jdbcTemplate.update("UPDATE game_sessions SET state_flags = " + flags + ", stage = " + stage);
+        LEGACY_FLAG_COLUMNS.keySet().forEach(column -> jdbcTemplate.execute("ALTER TABLE game_sessions DROP COLUMN " + column));
+        jdbcTemplate.execute("ALTER TABLE game_sessions DROP COLUMN " + LEGACY_STAGE_COLUMN);
+        log.info("Migrated {} game session(s) to packed state columns", rows);
+    }
+
+    private void migrateInspectionCounts(JdbcTemplate jdbcTemplate) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        int[] migrated = {0};
+        jdbcTemplate.query("SELECT id, " + LEGACY_COUNTS_COLUMN + " FROM game_sessions", rs -> {
+            batch.add(new Object[]{encodeLegacyCounts(rs.getString(2)), rs.getLong(1)});
+            if (batch.size() == BATCH_SIZE) {
+                migrated[0] += writeCounters(jdbcTemplate, batch);
+            }
+        });
+        migrated[0] += writeCounters(jdbcTemplate, batch);
+        jdbcTemplate.execute("ALTER TABLE game_sessions DROP COLUMN " + LEGACY_COUNTS_COLUMN);
+        log.info("Migrated inspection counts of {} game session(s) to binary counters", migrated[0]);
+    }
+
+    private int writeCounters(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate("UPDATE game_sessions SET inspection_counters = ? WHERE id = ?", batch);
+        int written = batch.size();
+        batch.clear();
+        return written;
+    }
+
+    private byte[] encodeLegacyCounts(String json) {
+        if (json == null || json.isBlank()) {
+            return encodeCounters(Map.of());
+        }
+        try {
+            return encodeCounters(objectMapper.readValue(json, new TypeReference<Map<String, Integer>>() {}));
+        } catch (Exception e) {
+            log.warn("Dropping unreadable inspection counts: {}", json);
+            return encodeCounters(Map.of());
+        }
+    }
+
+    // Each legacy "STAGE_area" count is kept by its names; entries without a separator or a count are dropped
+    private static byte[] encodeCounters(Map<String, Integer> legacy) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        legacy.forEach((name, count) -> {
+            if (name.indexOf('_') >= 0 && count != null) {
+                counts.put(name, count);
+            }
+        });
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + counts.size() * 16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(COUNTERS_FORMAT_VERSION);
+            out.writeShort(counts.size());
+            for (Map.Entry<String, Integer> count : counts.entrySet()) {
+                int separator = count.getKey().indexOf('_');
+                out.writeUTF(count.getKey().substring(0, separator));
+                out.writeUTF(count.getKey().substring(separator + 1));
+                out.writeInt(count.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private boolean hasColumn(JdbcTemplate jdbcTemplate, String column) {
+        Boolean found = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet columns = metaData.getColumns(null, null, "game_sessions", column)) {
+                return columns.next();
+            }
+        });
+        return Boolean.TRUE.equals(found);
+    }
+}
@@ -0,0 +1,66 @@
+package com.escaperoom.backend.config;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Token-bucket limits for lock guesses ({@code escaperoom.lock-attempts.*}). Every game session and every user
+ * has one bucket per lock; {@code locks.<lock-id>} overrides the defaults for a single lock.
+ */
+@ConfigurationProperties("escaperoom.lock-attempts")
+@Getter
+@Setter
+@NoArgsConstructor
+public class LockAttemptProperties {
+
+    private boolean enabled = true;
+    private int maxBuckets = 100_000;
+    private Limit session = new Limit(10, 30);
+    private Limit user = new Limit(30, 90);
+    private Map<String, LockLimits> locks = new HashMap<>();
+
+    public Limit sessionLimit(String lockType) {
+        LockLimits overrides = locks.get(lockType);
+        return overrides == null ? session : session.overriddenBy(overrides.getSession());
+    }
+
+    public Limit userLimit(String lockType) {
+        LockLimits overrides = locks.get(lockType);
+        return overrides == null ? user : user.overriddenBy(overrides.getUser());
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class LockLimits {
+        private Limit session;
+        private Limit user;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class Limit {
+        private Integer burst;              // guesses that can be made back to back
+        private Double refillPerMinute;     // guesses regained per minute after that
+
+        public Limit(Integer burst, double refillPerMinute) {
+            this.burst = burst;
+            this.refillPerMinute = refillPerMinute;
+        }
+
+        Limit overriddenBy(Limit override) {
+            if (override == null) {
+                return this;
+            }
+            return new Limit(
+                    override.burst != null ? override.burst : burst,
+                    override.refillPerMinute != null ? override.refillPerMinute : refillPerMinute);
+        }
+    }
+}
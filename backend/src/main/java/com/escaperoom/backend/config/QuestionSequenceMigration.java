@@ -0,0 +1,54 @@
+package com.escaperoom.backend.config;
+
+import com.escaperoom.backend.model.Question;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migration V5: question ids come from {@code questions_seq} instead of the identity column, so Hibernate can
+ * hand out ids in blocks of {@link Question#ID_ALLOCATION_SIZE} and batch the inserts. The sequence starts past the
+ * highest existing id.
+ */
+@Component
+public class QuestionSequenceMigration implements JavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionSequenceMigration.class);
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("5");
+    }
+
+    @Override
+    public String getDescription() {
+        return "question id sequence";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM questions", Long.class);
+        long start = maxId == null ? 1 : maxId + 1;
+        jdbcTemplate.execute("CREATE SEQUENCE " + Question.ID_SEQUENCE + " START WITH " + start
+                + " INCREMENT BY " + Question.ID_ALLOCATION_SIZE);
+        // Identity values would collide with the blocks handed out from the sequence
+        jdbcTemplate.execute("ALTER TABLE questions ALTER COLUMN id DROP IDENTITY");
+        log.info("Question ids now come from {} starting at {}", Question.ID_SEQUENCE, start);
+    }
+}
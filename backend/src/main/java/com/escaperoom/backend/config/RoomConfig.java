@@ -0,0 +1,53 @@
+package com.escaperoom.backend.config;
+
+import com.escaperoom.backend.model.InspectionKeys;
+import com.escaperoom.backend.model.RoomDefinition;
+import com.escaperoom.backend.model.RoomTexts;
+import com.escaperoom.backend.service.RoomEngine;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the room definition named by {@code escaperoom.room-definition}, together with the localized texts
+ * named by {@code escaperoom.room-texts}, and compiles them once at startup.
+ * A definition that does not compile (unknown flag, duplicate lock, unknown text key, ...) fails the startup.
+ */
+@Configuration
+public class RoomConfig {
+
+    @Bean
+    public RoomEngine roomEngine(ObjectMapper objectMapper,
+                                 @Value("${escaperoom.room-definition:classpath:rooms/prison.json}") Resource definition,
+                                 @Value("${escaperoom.room-texts:classpath:rooms/prison_fr.json}") Resource[] texts)
+            throws IOException {
+        RoomDefinition room = read(objectMapper, definition, RoomDefinition.class);
+        List<RoomTexts> bundles = new ArrayList<>(texts.length);
+        for (Resource bundle : texts) {
+            bundles.add(read(objectMapper, bundle, RoomTexts.class));
+        }
+        return RoomEngine.compile(room, bundles);
+    }
+
+    // The compiled room's inspection keys, for the counters column converter
+    @Bean
+    public InspectionKeys inspectionKeys(RoomEngine roomEngine) {
+        return roomEngine.inspectionKeys();
+    }
+
+    private static <T> T read(ObjectMapper objectMapper, Resource resource, Class<T> type) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return objectMapper.readerFor(type)
+                    .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                    .readValue(in);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.escaperoom.backend.config;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * How long game sessions are kept and how fast they are deleted ({@code escaperoom.session-retention.*}).
+ */
+@ConfigurationProperties("escaperoom.session-retention")
+@Getter
+@Setter
+@NoArgsConstructor
+public class SessionRetentionProperties {
+
+    private boolean enabled = true;
+    private Duration initialDelay = Duration.ofMinutes(1);
+    private Duration interval = Duration.ofMinutes(10);     // between the end of one run and the start of the next
+    private Duration escapedAfter = Duration.ofDays(7);     // ESCAPED sessions, counted from their last update
+    private Duration abandonedAfter = Duration.ofDays(30);  // sessions still in CELL or DESK
+    private int batchSize = 500;
+    private Duration batchDelay = Duration.ofMillis(250);   // pause between two batches
+    private int maxBatchesPerRun = 200;
+}
@@ -0,0 +1,67 @@
+package com.escaperoom.backend.config;
+
+import com.escaperoom.backend.service.SessionTokens;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Authenticates requests carrying a session token, checked in memory: the principal is the user's id.
+ *
+ * The token comes from {@code Authorization: Bearer}, or from the {@code token} query parameter on the game
+ * socket handshake, where browsers cannot set headers. A request without a token passes through unauthenticated;
+ * one with an invalid token is answered with 401. So is an expired one while {@code escaperoom.auth.require-token}
+ * is on; while it is off, an expired token is ignored, as if the request carried none.
+ */
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+    private static final String SOCKET_TOKEN_PARAMETER = "token";
+
+    private final SessionTokens sessionTokens;
+    private final AuthTokenProperties properties;
+
+    public SessionTokenFilter(SessionTokens sessionTokens, AuthTokenProperties properties) {
+        this.sessionTokens = sessionTokens;
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = token(request);
+        if (token != null) {
+            Optional<SessionTokens.Claims> claims = sessionTokens.read(token);
+            if (claims.isEmpty() || (claims.get().expired() && properties.isRequireToken())) {
+                response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
+            }
+            if (!claims.get().expired()) {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(claims.get().userId(), null, List.of()));
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static String token(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER)) {
+            return header.substring(BEARER.length());
+        }
+        if (request.getRequestURI().startsWith("/ws/")) {
+            return request.getParameter(SOCKET_TOKEN_PARAMETER);
+        }
+        return null;
+    }
+}
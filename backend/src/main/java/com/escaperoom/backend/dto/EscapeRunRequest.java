@@ -12,7 +12,7 @@ import java.util.UUID;
 @Data
 public class EscapeRunRequest {
 
-    @NotNull(message = "User id is required")
+    // Only needed without a session token
     private UUID userId;
 
     @NotNull(message = "Difficulty is required")
@@ -0,0 +1,23 @@
+package com.escaperoom.backend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameActionsRequestDTO {
+
+    @NotEmpty(message = "At least one command is required")
+    @Size(max = 50, message = "At most 50 commands can be sent at once")
+    private List<@NotNull(message = "Commands cannot be null") @Valid GameCommandDTO> commands;
+}
@@ -0,0 +1,19 @@
+package com.escaperoom.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GameActionsResponseDTO {
+    private List<GameCommandResultDTO> results; // one per command, in request order
+    private GameStateDTO finalState;
+}
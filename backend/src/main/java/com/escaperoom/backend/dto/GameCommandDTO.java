@@ -0,0 +1,41 @@
+package com.escaperoom.backend.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GameCommandDTO {
+
+    public enum Type {
+        INSPECT,
+        VALIDATE_LOCK,
+        USE_ITEM,
+        TRANSITION
+    }
+
+    @NotNull(message = "Command type is required")
+    private Type type;
+
+    // INSPECT
+    private String stage; // "CELL", "DESK"
+    private String inspectionArea; // optional
+
+    // VALIDATE_LOCK
+    private String lockType; // "cell-drawer", "cell-door", "desk-drawer", "final-door"
+    private String answer;
+
+    // USE_ITEM
+    private String item; // "rod", "deskKey"
+    private String target; // optional
+
+    // TRANSITION
+    private String targetStage; // "DESK", "ESCAPED"
+}
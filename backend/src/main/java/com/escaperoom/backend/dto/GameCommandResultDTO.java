@@ -0,0 +1,18 @@
+package com.escaperoom.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GameCommandResultDTO {
+    private GameCommandDTO.Type type;
+    private Boolean success;
+    private String message; // inspection text or outcome message
+}
@@ -0,0 +1,24 @@
+package com.escaperoom.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Server-to-client frame on the game WebSocket: the outcome of one command plus the resulting state,
+ * or an error when the frame could not be handled.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GameSocketMessageDTO {
+    private GameCommandResultDTO result;
+    private GameStateDTO state;
+    private String error;
+}
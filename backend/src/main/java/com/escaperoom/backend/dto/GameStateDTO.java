@@ -1,5 +1,6 @@
 package com.escaperoom.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -13,8 +14,13 @@ import java.util.Map;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class GameStateDTO {
     private Long gameSessionId;
+    private Long stateVersion;
+    
+    // Set when only the fields that changed since the client's known version are filled in
+    private Boolean partial;
     private String currentStage; // "CELL", "DESK", "ESCAPED"
     
     // Inventory
@@ -0,0 +1,18 @@
+package com.escaperoom.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a list ordered by id. {@code next} is the id to pass as {@code after} for the following page,
+ * or null on the last page.
+ */
+@Data
+@AllArgsConstructor
+public class KeysetPageResponse<T, K> {
+
+    private List<T> items;
+    private K next;
+}
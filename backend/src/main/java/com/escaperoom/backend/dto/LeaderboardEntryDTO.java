@@ -0,0 +1,17 @@
+package com.escaperoom.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class LeaderboardEntryDTO {
+
+    private int rank;
+    private UUID userId;
+    private long bestTimeMillis;
+    private Instant achievedAt;
+}
@@ -0,0 +1,16 @@
+package com.escaperoom.backend.dto;
+
+import com.escaperoom.backend.model.DifficultyLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class LeaderboardResponse {
+
+    private DifficultyLevel difficulty;
+    private int totalPlayers;
+    private List<LeaderboardEntryDTO> entries;
+}
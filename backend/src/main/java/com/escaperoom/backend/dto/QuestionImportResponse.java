@@ -0,0 +1,22 @@
+package com.escaperoom.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Outcome of a question import. {@code errors} lists the first rejected rows; {@code failed} counts all of them.
+ */
+@Data
+@AllArgsConstructor
+public class QuestionImportResponse {
+
+    private int imported;
+    private int failed;
+    private List<RowError> errors;
+
+    // Rows count from 1: array elements for JSON, records after the header for CSV
+    public record RowError(long row, String message) {
+    }
+}
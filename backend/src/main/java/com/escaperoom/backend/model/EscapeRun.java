@@ -1,8 +1,7 @@
 package com.escaperoom.backend.model;
 
-import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
-import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -12,13 +11,14 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
-import jakarta.persistence.OrderColumn;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Mutability;
+import org.hibernate.type.descriptor.java.Immutability;
 
 import java.time.Instant;
 import java.util.List;
@@ -32,6 +32,8 @@ import java.util.List;
 @Table(name = "escape_runs")
 public class EscapeRun {
 
+    public static final int QUESTION_COUNT = 6;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -50,13 +52,10 @@ public class EscapeRun {
     @Column(name = "finished_at", nullable = false)
     private Instant finishedAt;
 
-    @ElementCollection
-    @CollectionTable(
-            name = "escape_run_questions",
-            joinColumns = @JoinColumn(name = "escape_run_id")
-    )
-    @OrderColumn(name = "idx")
-    @Column(name = "question_id", nullable = false)
+    // Written once with the run and never changed, so Hibernate can skip snapshotting the list
+    @Convert(converter = QuestionIdsConverter.class)
+    @Mutability(Immutability.class)
+    @Column(name = "question_ids", nullable = false, length = QUESTION_COUNT * Long.BYTES)
     private List<Long> questionIds;
 }
 
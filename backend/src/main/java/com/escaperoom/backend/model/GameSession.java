@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Mutability;
 
 import java.time.Instant;
 
@@ -26,44 +27,36 @@ public class GameSession {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
-    @Column(name = "current_stage", nullable = false, length = 20)
+    @Enumerated(EnumType.ORDINAL)
+    @Column(name = "stage", nullable = false, columnDefinition = "smallint default 0 not null")
     @Builder.Default
-    private String currentStage = "CELL"; // "CELL", "DESK", "ESCAPED"
+    private GameStage stage = GameStage.CELL;
     
-    // Inventory flags
-    @Column(name = "has_rod", nullable = false)
+    // Inventory and puzzle flags, one bit per SessionFlag
+    @Column(name = "state_flags", nullable = false, columnDefinition = "bigint default 0 not null")
     @Builder.Default
-    private Boolean hasRod = false;
+    private long stateFlags = 0L;
     
-    @Column(name = "has_desk_key", nullable = false)
+    @Convert(converter = InspectionCountersConverter.class)
+    @Mutability(InspectionCountersConverter.CopyingMutabilityPlan.class)
+    @Column(name = "inspection_counters", length = 4096)
     @Builder.Default
-    private Boolean hasDeskKey = false;
+    private InspectionCounters inspectionCounts = new InspectionCounters();
     
-    @Column(name = "has_metal_piece", nullable = false)
+    // Bumped once per action that changes the player-visible state; exposed as the ETag of the state
+    @Column(name = "state_version", nullable = false, columnDefinition = "bigint default 0 not null")
     @Builder.Default
-    private Boolean hasMetalPiece = false;
+    private long stateVersion = 0L;
     
-    // Puzzle completion flags
-    @Column(name = "cell_drawer_unlocked", nullable = false)
+    // Optimistic lock; concurrent writers of the same row fail instead of overwriting each other
+    @Version
+    @Column(name = "lock_version", nullable = false, columnDefinition = "bigint default 0 not null")
     @Builder.Default
-    private Boolean cellDrawerUnlocked = false;
+    private long lockVersion = 0L;
     
-    @Column(name = "cell_door_unlocked", nullable = false)
-    @Builder.Default
-    private Boolean cellDoorUnlocked = false;
-    
-    @Column(name = "desk_drawer_unlocked", nullable = false)
-    @Builder.Default
-    private Boolean deskDrawerUnlocked = false;
-    
-    @Column(name = "final_door_unlocked", nullable = false)
-    @Builder.Default
-    private Boolean finalDoorUnlocked = false;
-    
-    // Inspection counts stored as JSON string
-    @Column(name = "inspection_counts", columnDefinition = "TEXT")
-    @Builder.Default
-    private String inspectionCounts = "{}";
+    // State as it was when the current action loaded the session
+    @Transient
+    private GameStateSnapshot baseline;
     
     @Column(name = "start_time", nullable = false)
     private Instant startTime;
@@ -71,6 +64,40 @@ public class GameSession {
     @Column(name = "last_updated", nullable = false)
     private Instant lastUpdated;
     
+    public InspectionCounters getInspectionCounts() {
+        if (inspectionCounts == null) {
+            inspectionCounts = new InspectionCounters();
+        }
+        return inspectionCounts;
+    }
+    
+    public boolean has(SessionFlag flag) {
+        return (stateFlags & flag.mask()) != 0;
+    }
+    
+    public void set(SessionFlag flag, boolean value) {
+        stateFlags = value ? stateFlags | flag.mask() : stateFlags & ~flag.mask();
+    }
+    
+    public void captureBaseline() {
+        baseline = GameStateSnapshot.of(this);
+    }
+    
+    /**
+     * Bumps {@code stateVersion} if the state differs from the baseline. Idempotent within an action,
+     * so it can be called both while building a response and once the action is done.
+     */
+    public boolean changedSinceBaseline() {
+        syncStateVersion();
+        return baseline == null || stateVersion != baseline.version();
+    }
+    
+    public void syncStateVersion() {
+        if (baseline != null && stateVersion == baseline.version() && !baseline.matches(this)) {
+            stateVersion = baseline.version() + 1;
+        }
+    }
+    
     @PrePersist
     @PreUpdate
     protected void updateTimestamp() {
@@ -0,0 +1,25 @@
+package com.escaperoom.backend.model;
+
+/**
+ * Stages of the escape room. Persisted by ordinal, so new stages must only be appended.
+ */
+public enum GameStage {
+    CELL,
+    DESK,
+    ESCAPED;
+
+    // values() hands out a fresh copy on every call
+    private static final GameStage[] VALUES = values();
+
+    public static GameStage fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (GameStage stage : VALUES) {
+            if (stage.name().equals(name)) {
+                return stage;
+            }
+        }
+        return null;
+    }
+}
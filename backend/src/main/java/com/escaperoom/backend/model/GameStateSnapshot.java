@@ -0,0 +1,22 @@
+package com.escaperoom.backend.model;
+
+/**
+ * The player-visible state of a {@link GameSession} at one {@code stateVersion}, used to tell whether an
+ * action changed anything and which fields to send back in a delta.
+ */
+public record GameStateSnapshot(long version, GameStage stage, long stateFlags, InspectionCounters inspectionCounts) {
+
+    public static GameStateSnapshot of(GameSession session) {
+        return new GameStateSnapshot(
+                session.getStateVersion(),
+                session.getStage(),
+                session.getStateFlags(),
+                session.getInspectionCounts().copy());
+    }
+
+    public boolean matches(GameSession session) {
+        return stage == session.getStage()
+                && stateFlags == session.getStateFlags()
+                && inspectionCounts.equals(session.getInspectionCounts());
+    }
+}
@@ -0,0 +1,231 @@
+package com.escaperoom.backend.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-session inspection counters keyed by the ints of the room's {@link InspectionKeys}; the methods that deal
+ * in stage/area names take that registry.
+ *
+ * Open-addressing int map, so {@link #increment(int)} and {@link #get(int)} never allocate
+ * (apart from the occasional resize). Persisted as a small binary blob holding the stage/area
+ * names and fixed-width counts. Stored counters the room no longer declares are carried along unchanged, so
+ * saving a session never loses them.
+ */
+public final class InspectionCounters {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    // Slots hold key + 1 so that 0 can mark a free slot
+    private int[] keys;
+    private int[] counts;
+    private int size;
+    // Loaded counters without a declared key; filled only while loading, shared by copies afterwards
+    private List<Stored> undeclared = List.of();
+
+    public InspectionCounters() {
+        this(8);
+    }
+
+    private InspectionCounters(int capacity) {
+        keys = new int[capacity];
+        counts = new int[capacity];
+    }
+
+    public int increment(int key) {
+        if (key == InspectionKeys.UNTRACKED) {
+            return 0;
+        }
+        int slot = slot(key);
+        if (keys[slot] == 0) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+                slot = slot(key);
+            }
+            keys[slot] = key + 1;
+            size++;
+        }
+        return ++counts[slot];
+    }
+
+    public int get(int key) {
+        if (key == InspectionKeys.UNTRACKED) {
+            return 0;
+        }
+        int slot = slot(key);
+        return keys[slot] == 0 ? 0 : counts[slot];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Map<String, Integer> toMap(InspectionKeys inspectionKeys) {
+        Map<String, Integer> map = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                map.put(inspectionKeys.name(keys[i] - 1), counts[i]);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * The counts that differ from {@code baseline}, by "STAGE_area" name.
+     */
+    public Map<String, Integer> changedSince(InspectionCounters baseline, InspectionKeys inspectionKeys) {
+        Map<String, Integer> changed = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0 && baseline.get(keys[i] - 1) != counts[i]) {
+                changed.put(inspectionKeys.name(keys[i] - 1), counts[i]);
+            }
+        }
+        return changed;
+    }
+
+    public InspectionCounters copy() {
+        InspectionCounters copy = new InspectionCounters(keys.length);
+        System.arraycopy(keys, 0, copy.keys, 0, keys.length);
+        System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+        copy.size = size;
+        copy.undeclared = undeclared;
+        return copy;
+    }
+
+    public byte[] toBytes(InspectionKeys inspectionKeys) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + (size + undeclared.size()) * 16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeShort(size + undeclared.size());
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    out.writeUTF(inspectionKeys.stage(keys[i] - 1));
+                    out.writeUTF(inspectionKeys.area(keys[i] - 1));
+                    out.writeInt(counts[i]);
+                }
+            }
+            for (Stored stored : undeclared) {
+                out.writeUTF(stored.stage());
+                out.writeUTF(stored.area());
+                out.writeInt(stored.count());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static InspectionCounters fromBytes(byte[] data, InspectionKeys inspectionKeys) {
+        InspectionCounters counters = new InspectionCounters();
+        if (data == null || data.length == 0) {
+            return counters;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unknown inspection counters format: " + version);
+            }
+            int entries = in.readUnsignedShort();
+            for (int i = 0; i < entries; i++) {
+                counters.add(inspectionKeys, in.readUTF(), in.readUTF(), in.readInt());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return counters;
+    }
+
+    /**
+     * Builds counters from the legacy JSON map of "STAGE_area" names to counts.
+     */
+    public static InspectionCounters fromLegacyMap(Map<String, Integer> legacy, InspectionKeys inspectionKeys) {
+        InspectionCounters counters = new InspectionCounters();
+        legacy.forEach((name, count) -> {
+            int separator = name.indexOf('_');
+            if (separator < 0 || count == null) {
+                return;
+            }
+            counters.add(inspectionKeys, name.substring(0, separator), name.substring(separator + 1), count);
+        });
+        return counters;
+    }
+
+    private void add(InspectionKeys inspectionKeys, String stage, String area, int count) {
+        int key = inspectionKeys.declaredKey(stage, area);
+        if (key == InspectionKeys.UNTRACKED) {
+            if (undeclared.isEmpty()) {
+                undeclared = new ArrayList<>();
+            }
+            undeclared.add(new Stored(stage, area, count));
+            return;
+        }
+        int slot = slot(key);
+        if (keys[slot] == 0) {
+            increment(key);
+            slot = slot(key);
+            counts[slot] = 0;
+        }
+        counts[slot] += count;
+    }
+
+    private int slot(int key) {
+        int mask = keys.length - 1;
+        int slot = (key * 0x9E3779B9 >>> 16) & mask;
+        while (keys[slot] != 0 && keys[slot] != key + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new int[oldKeys.length * 2];
+        counts = new int[oldCounts.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i] - 1);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private record Stored(String stage, String area, int count) {
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof InspectionCounters other) || other.size != size || !other.undeclared.equals(undeclared)) {
+            return false;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0 && other.get(keys[i] - 1) != counts[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = undeclared.hashCode();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                hash += keys[i] * 31 + counts[i];
+            }
+        }
+        return hash;
+    }
+}
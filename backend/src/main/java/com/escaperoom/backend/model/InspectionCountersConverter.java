@@ -0,0 +1,41 @@
+package com.escaperoom.backend.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.type.descriptor.java.MutableMutabilityPlan;
+
+/**
+ * Reads and writes counters by the names in the room's {@link InspectionKeys}; Hibernate obtains it from Spring,
+ * which injects the registry.
+ */
+@Converter
+public class InspectionCountersConverter implements AttributeConverter<InspectionCounters, byte[]> {
+
+    private final InspectionKeys inspectionKeys;
+
+    public InspectionCountersConverter(InspectionKeys inspectionKeys) {
+        this.inspectionKeys = inspectionKeys;
+    }
+
+    @Override
+    public byte[] convertToDatabaseColumn(InspectionCounters counters) {
+        return counters == null ? null : counters.toBytes(inspectionKeys);
+    }
+
+    @Override
+    public InspectionCounters convertToEntityAttribute(byte[] data) {
+        return InspectionCounters.fromBytes(data, inspectionKeys);
+    }
+
+    /**
+     * Lets Hibernate snapshot counters with a plain array copy instead of an encode/decode round trip,
+     * so dirty checking compares counters directly.
+     */
+    public static class CopyingMutabilityPlan extends MutableMutabilityPlan<InspectionCounters> {
+
+        @Override
+        protected InspectionCounters deepCopyNotNull(InspectionCounters value) {
+            return value.copy();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.escaperoom.backend.model;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Interns inspection stage/area names to small integer ids and combines them into a single
+ * {@code int} key for {@link InspectionCounters}. Lookups of names that were seen before do not allocate.
+ *
+ * Each compiled room owns one registry, filled with the stages and areas its definition declares, so the table
+ * stays as small as the room whatever names clients send. Keys only mean something to the registry that made
+ * them; persisted counters always store the names, never the ids.
+ */
+public final class InspectionKeys {
+
+    public static final int UNTRACKED = -1;
+
+    // Same key the JSON counts used when no area was given ("CELL_scene")
+    public static final String DEFAULT_AREA = "scene";
+
+    private static final int MAX_TOKENS = 1 << 10;
+    private static final int AREA_BITS = 16;
+    private static final int AREA_MASK = (1 << AREA_BITS) - 1;
+
+    private final Tokens stages = new Tokens();
+    private final Tokens areas = new Tokens();
+
+    // Declared areas per stage; each set is replaced whole, so lookups take no lock
+    private final ConcurrentHashMap<String, Set<String>> declared = new ConcurrentHashMap<>();
+
+    /**
+     * Declares an inspectable stage/area pair of the room definition while it is compiled; every declared stage
+     * also has {@link #DEFAULT_AREA}.
+     */
+    public synchronized void declare(String stage, String area) {
+        if (stages.id(stage) < 0 || areas.id(DEFAULT_AREA) < 0 || areas.id(area) < 0) {
+            throw new IllegalStateException("Room declares more than " + MAX_TOKENS + " inspection stages or areas");
+        }
+        Set<String> stageAreas = new HashSet<>(declared.getOrDefault(stage, Set.of()));
+        stageAreas.add(DEFAULT_AREA);
+        stageAreas.add(area);
+        declared.put(stage, Set.copyOf(stageAreas));
+    }
+
+    /**
+     * Returns the key for a stage/area pair a client asked to inspect. An area the room does not declare counts
+     * as the stage's {@link #DEFAULT_AREA}; a stage it does not declare is {@link #UNTRACKED}.
+     */
+    public int key(String stage, String area) {
+        Set<String> stageAreas = stage == null ? null : declared.get(stage);
+        if (stageAreas == null) {
+            return UNTRACKED;
+        }
+        return combine(stage, area != null && stageAreas.contains(area) ? area : DEFAULT_AREA);
+    }
+
+    /**
+     * Returns the key for a stored stage/area pair, or {@link #UNTRACKED} unless the room declares exactly that pair.
+     */
+    public int declaredKey(String stage, String area) {
+        Set<String> stageAreas = declared.get(stage);
+        return stageAreas != null && stageAreas.contains(area) ? combine(stage, area) : UNTRACKED;
+    }
+
+    private int combine(String stage, String area) {
+        return (stages.id(stage) << AREA_BITS) | areas.id(area);
+    }
+
+    public String stage(int key) {
+        return stages.name(key >>> AREA_BITS);
+    }
+
+    public String area(int key) {
+        return areas.name(key & AREA_MASK);
+    }
+
+    /** The legacy "STAGE_area" name of a key, as exposed in {@code GameStateDTO.inspectionCounts}. */
+    public String name(int key) {
+        return stage(key) + "_" + area(key);
+    }
+
+    private static final class Tokens {
+        private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+        private final AtomicReferenceArray<String> names = new AtomicReferenceArray<>(MAX_TOKENS);
+        private int next;
+
+        int id(String name) {
+            Integer id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            synchronized (this) {
+                id = ids.get(name);
+                if (id != null) {
+                    return id;
+                }
+                if (next == MAX_TOKENS) {
+                    return UNTRACKED;
+                }
+                names.set(next, name);
+                ids.put(name, next);
+                return next++;
+            }
+        }
+
+        String name(int id) {
+            return names.get(id);
+        }
+    }
+}
@@ -9,8 +9,14 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Question {
+
+    public static final String ID_SEQUENCE = "questions_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Ids are handed out in blocks (pooled-lo), so inserts can be batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "questions_seq")
+    @SequenceGenerator(name = "questions_seq", sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private long id;
 
     @Column(nullable = false)
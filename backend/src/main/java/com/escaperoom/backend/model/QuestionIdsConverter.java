@@ -0,0 +1,44 @@
+package com.escaperoom.backend.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Stores a run's question ids inline as fixed-width big-endian longs, eight bytes per id in run order.
+ */
+@Converter
+public class QuestionIdsConverter implements AttributeConverter<List<Long>, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(List<Long> questionIds) {
+        return questionIds == null ? null : encode(questionIds);
+    }
+
+    @Override
+    public List<Long> convertToEntityAttribute(byte[] data) {
+        return data == null ? null : decode(data);
+    }
+
+    public static byte[] encode(List<Long> questionIds) {
+        ByteBuffer buffer = ByteBuffer.allocate(questionIds.size() * Long.BYTES);
+        for (Long id : questionIds) {
+            buffer.putLong(id);
+        }
+        return buffer.array();
+    }
+
+    public static List<Long> decode(byte[] data) {
+        if (data.length % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Question ids column holds " + data.length + " bytes, not a multiple of " + Long.BYTES);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        Long[] ids = new Long[data.length / Long.BYTES];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = buffer.getLong();
+        }
+        return List.of(ids);
+    }
+}
@@ -0,0 +1,103 @@
+package com.escaperoom.backend.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Declarative description of a room: its stages with their inspection scripts, its locks and its items.
+ * Loaded from JSON at startup (see {@code rooms/prison.json}) and compiled into a {@code RoomEngine}.
+ *
+ * Stage and flag names refer to {@link GameStage} and {@link SessionFlag}, which are what sessions persist.
+ * Every condition is a pair of flag lists: {@code requires} must all be set, {@code forbids} must all be clear.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class RoomDefinition {
+
+    private String name;
+    private String unknownStageText;
+    private List<Stage> stages = new ArrayList<>();
+    private List<Lock> locks = new ArrayList<>();
+    private List<Item> items = new ArrayList<>();
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class Stage {
+        private String name;
+        private List<String> enterRequires = new ArrayList<>();
+        private Inspection inspection = new Inspection();
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class Inspection {
+        private List<String> areas = new ArrayList<>(); // counted separately; any other area counts as "scene"
+        // First matching rule picks the text; every matching effect is applied afterwards
+        private List<InspectionRule> rules = new ArrayList<>();
+        private List<InspectionEffect> effects = new ArrayList<>();
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class InspectionRule {
+        private String key;     // optional: names the text pool for localized bundles
+        private int minCount = 1;
+        private int maxCount = Integer.MAX_VALUE;
+        private List<String> requires = new ArrayList<>();
+        private List<String> forbids = new ArrayList<>();
+        private List<String> texts = new ArrayList<>(); // one is picked at random
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class InspectionEffect {
+        private int minCount = 1;
+        private int maxCount = Integer.MAX_VALUE;
+        private List<String> requires = new ArrayList<>();
+        private List<String> forbids = new ArrayList<>();
+        private List<String> sets = new ArrayList<>();
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class Lock {
+        private String id;      // "cell-drawer", as used in the API
+        private String name;    // "cellDrawer", as used in lock inputs
+        private String code;
+        private String stage;   // optional: stage the player must be in
+        private List<String> requires = new ArrayList<>();
+        private List<String> sets = new ArrayList<>();
+        private String moveFrom; // optional: only move when in this stage
+        private String moveTo;   // optional: stage to move to once unlocked
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class Item {
+        private List<String> names = new ArrayList<>(); // matched case-insensitively
+        private List<ItemUse> uses = new ArrayList<>();
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class ItemUse {
+        private String stage;
+        private List<String> requires = new ArrayList<>();
+        private List<String> forbids = new ArrayList<>();
+        private List<String> targets = new ArrayList<>(); // matched case-insensitively; empty means any
+        private boolean targetOptional;
+        private List<String> sets = new ArrayList<>();
+    }
+}
@@ -0,0 +1,23 @@
+package com.escaperoom.backend.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inspection texts of a room in one language (see {@code rooms/prison_fr.json}). Each entry replaces the
+ * texts of the {@link RoomDefinition} rule with the same {@code key}; rules left out keep their own texts.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class RoomTexts {
+
+    private String locale;              // language tag, e.g. "fr"
+    private String unknownStageText;    // optional
+    private Map<String, List<String>> texts = new LinkedHashMap<>();
+}
@@ -0,0 +1,28 @@
+package com.escaperoom.backend.model;
+
+/**
+ * Inventory and puzzle progress flags packed into {@link GameSession#getStateFlags()}.
+ * Each flag owns one bit; bits are persisted, so existing positions must never change.
+ */
+public enum SessionFlag {
+    // Inventory
+    HAS_ROD(0),
+    HAS_DESK_KEY(1),
+    HAS_METAL_PIECE(2),
+
+    // Puzzle completion
+    CELL_DRAWER_UNLOCKED(3),
+    CELL_DOOR_UNLOCKED(4),
+    DESK_DRAWER_UNLOCKED(5),
+    FINAL_DOOR_UNLOCKED(6);
+
+    private final long mask;
+
+    SessionFlag(int bit) {
+        this.mask = 1L << bit;
+    }
+
+    public long mask() {
+        return mask;
+    }
+}
@@ -0,0 +1,57 @@
+-- Schema as Hibernate's ddl-auto=update produced it before migrations took over.
+-- Databases created that way are baselined at this version and skip it.
+-- game_sessions still has its per-flag columns and JSON counts; V2 moves them to the packed columns.
+
+CREATE TABLE users (
+    id       UUID         NOT NULL,
+    email    VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE questions (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    question_text VARCHAR(255) NOT NULL,
+    answer        VARCHAR(255) NOT NULL,
+    hint          VARCHAR(255),
+    order_number  INTEGER      NOT NULL,
+    difficulty    VARCHAR(255) NOT NULL CHECK (difficulty IN ('EASY', 'MEDIUM', 'HARD')),
+    CONSTRAINT pk_questions PRIMARY KEY (id)
+);
+
+CREATE TABLE game_sessions (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id              UUID                        NOT NULL,
+    current_stage        VARCHAR(20)                 NOT NULL,
+    has_rod              BOOLEAN                     NOT NULL,
+    has_desk_key         BOOLEAN                     NOT NULL,
+    has_metal_piece      BOOLEAN                     NOT NULL,
+    cell_drawer_unlocked BOOLEAN                     NOT NULL,
+    cell_door_unlocked   BOOLEAN                     NOT NULL,
+    desk_drawer_unlocked BOOLEAN                     NOT NULL,
+    final_door_unlocked  BOOLEAN                     NOT NULL,
+    inspection_counts    TEXT,
+    start_time           TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    last_updated         TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_game_sessions PRIMARY KEY (id),
+    CONSTRAINT fk_game_sessions_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE escape_runs (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id           UUID                        NOT NULL,
+    difficulty        VARCHAR(255)                NOT NULL CHECK (difficulty IN ('EASY', 'MEDIUM', 'HARD')),
+    total_time_millis BIGINT                      NOT NULL,
+    finished_at       TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_escape_runs PRIMARY KEY (id),
+    CONSTRAINT fk_escape_runs_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE escape_run_questions (
+    escape_run_id BIGINT  NOT NULL,
+    idx           INTEGER NOT NULL,
+    question_id   BIGINT  NOT NULL,
+    CONSTRAINT pk_escape_run_questions PRIMARY KEY (idx, escape_run_id),
+    CONSTRAINT fk_escape_run_questions_run FOREIGN KEY (escape_run_id) REFERENCES escape_runs (id)
+);
@@ -0,0 +1,16 @@
+-- One index per repository query. Trailing columns make them covering where the query reads
+-- few enough columns, so the row comes straight from the index.
+
+-- EscapeRunRepo.findFirstByUserIdAndDifficultyOrderByFinishedAtDesc: newest run of a user first
+CREATE INDEX idx_escape_runs_user_difficulty_finished
+    ON escape_runs (user_id, difficulty, finished_at DESC, total_time_millis, id);
+
+-- EscapeRunRepo.streamBestTimes: min(total_time_millis) per user and difficulty
+CREATE INDEX idx_escape_runs_user_difficulty_time
+    ON escape_runs (user_id, difficulty, total_time_millis, finished_at);
+
+-- GameSessionRepository.findByUserOrderByLastUpdatedDesc / findFirstByUserOrderByLastUpdatedDesc
+CREATE INDEX idx_game_sessions_user_last_updated
+    ON game_sessions (user_id, last_updated DESC, id);
+
+-- UserRepo.findByEmail is served by uk_users_email, findByIdAndUser and findById by the primary keys
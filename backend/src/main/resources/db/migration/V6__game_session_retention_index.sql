@@ -0,0 +1,3 @@
+-- SessionReaper: oldest sessions of one stage first, so each batch is a short range scan
+CREATE INDEX idx_game_sessions_stage_last_updated
+    ON game_sessions (stage, last_updated, id);
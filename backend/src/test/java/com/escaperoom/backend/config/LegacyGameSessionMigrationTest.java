@@ -0,0 +1,111 @@
+package com.escaperoom.backend.config;
+
+import com.escaperoom.backend.model.InspectionCounters;
+import com.escaperoom.backend.model.InspectionKeys;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeds {@code game_sessions} rows in the legacy V1 layout, runs V2 on them and checks the folded
+ * {@code state_flags}, {@code stage} and {@code inspection_counters} columns.
+ */
+class LegacyGameSessionMigrationTest {
+
+    private static final List<String> FLAG_COLUMNS = List.of("has_rod", "has_desk_key", "has_metal_piece",
+            "cell_drawer_unlocked", "cell_door_unlocked", "desk_drawer_unlocked", "final_door_unlocked");
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:legacy-" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "sa", "");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final UUID userId = UUID.randomUUID();
+    private final InspectionKeys inspectionKeys = new InspectionKeys();
+
+    @BeforeEach
+    void createLegacySchema() {
+        inspectionKeys.declare("CELL", "window");
+        inspectionKeys.declare("DESK", "desk");
+        Flyway.configure().dataSource(dataSource).target("1").load().migrate();
+        jdbcTemplate.update("INSERT INTO users (id, email, password) VALUES (?, 'legacy@test.com', 'x')", userId);
+    }
+
+    @Test
+    void foldsFlagColumnsAndStageNames() {
+        long desk = insert("DESK", "{}", "has_rod", "cell_drawer_unlocked", "cell_door_unlocked");
+        long escaped = insert("ESCAPED", null, "has_rod", "has_desk_key", "has_metal_piece", "cell_drawer_unlocked",
+                "cell_door_unlocked", "desk_drawer_unlocked", "final_door_unlocked");
+        long cell = insert("CELL", null);
+        long unknown = insert("ATTIC", null, "has_desk_key");
+
+        migrateToV2();
+
+        assertState(desk, 1, 0b0011001);
+        assertState(escaped, 2, 0b1111111);
+        assertState(cell, 0, 0);
+        assertState(unknown, 0, 0b0000010);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.columns"
+                + " WHERE table_name = 'game_sessions' AND column_name IN ('current_stage', 'has_rod', 'inspection_counts')",
+                Integer.class)).isZero();
+    }
+
+    @Test
+    void reencodesJsonCountsByName() {
+        long counted = insert("DESK", "{\"CELL_scene\":5,\"DESK_desk\":2,\"CELL_window\":1}");
+        long malformedName = insert("CELL", "{\"CELL_scene\":1,\"noseparator\":3}");
+        long unreadable = insert("CELL", "not json");
+        long none = insert("CELL", null);
+
+        migrateToV2();
+
+        assertThat(counters(counted).toMap(inspectionKeys))
+                .isEqualTo(Map.of("CELL_scene", 5, "DESK_desk", 2, "CELL_window", 1));
+        assertThat(counters(malformedName).toMap(inspectionKeys)).isEqualTo(Map.of("CELL_scene", 1));
+        // Version 1, no entries
+        assertThat(counterBytes(unreadable)).containsExactly(1, 0, 0);
+        assertThat(counterBytes(none)).containsExactly(1, 0, 0);
+    }
+
+    private long insert(String stage, String counts, String... setFlags) {
+        StringBuilder flags = new StringBuilder();
+        for (String column : FLAG_COLUMNS) {
+            flags.append(", ").append(List.of(setFlags).contains(column));
+        }
+        jdbcTemplate.update("INSERT INTO game_sessions (user_id, current_stage, has_rod, has_desk_key, has_metal_piece,"
+                + " cell_drawer_unlocked, cell_door_unlocked, desk_drawer_unlocked, final_door_unlocked,"
+                + " inspection_counts, start_time, last_updated)"
+                + " VALUES (?, ?" + flags + ", ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", userId, stage, counts);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM game_sessions", Long.class);
+    }
+
+    private void migrateToV2() {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .javaMigrations(new LegacyGameSessionMigration())
+                .target("2")
+                .load()
+                .migrate();
+    }
+
+    private void assertState(long id, int stage, long stateFlags) {
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT stage, state_flags FROM game_sessions WHERE id = ?", id);
+        assertThat(((Number) row.get("stage")).intValue()).isEqualTo(stage);
+        assertThat(((Number) row.get("state_flags")).longValue()).isEqualTo(stateFlags);
+    }
+
+    private byte[] counterBytes(long id) {
+        return jdbcTemplate.queryForObject("SELECT inspection_counters FROM game_sessions WHERE id = ?", byte[].class, id);
+    }
+
+    private InspectionCounters counters(long id) {
+        return InspectionCounters.fromBytes(counterBytes(id), inspectionKeys);
+    }
+}
@@ -0,0 +1,100 @@
+package com.escaperoom.backend.controller;
+
+import com.escaperoom.backend.config.DbRoundTripHeaderAdvice;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Plays the room through the game endpoints on H2 and checks the {@code X-Db-Reads} / {@code X-Db-Writes}
+ * headers: every action loads its session with one read and writes it at most once, and an action that
+ * changes nothing writes nothing.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:roundtrips;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "escaperoom.diagnostics.db-round-trip-headers=true"
+})
+class DbRoundTripHeadersTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String token;
+    private long sessionId;
+
+    @BeforeEach
+    void startSession() throws Exception {
+        MvcResult account = send("/api/auth/create-account",
+                Map.of("email", "roundtrips-" + UUID.randomUUID() + "@test.com", "password", "x"));
+        token = account.getResponse().getHeader(AuthController.TOKEN_HEADER);
+        assertThat(token).isNotNull();
+        sessionId = json(send("/api/game/session/start", Map.of())).path("gameSessionId").asLong();
+    }
+
+    @Test
+    void wrongAnswerReadsOnceAndWritesNothing() throws Exception {
+        MvcResult result = send("/api/game/validate/cell-drawer", Map.of("gameSessionId", sessionId, "answer", "0000"));
+
+        assertThat(json(result).path("correct").asBoolean()).isFalse();
+        assertRoundTrips(result, 0);
+    }
+
+    @Test
+    void gameActionsReadOnceAndWriteAtMostOnce() throws Exception {
+        MvcResult validate = send("/api/game/validate/cell-drawer", Map.of("gameSessionId", sessionId, "answer", "1247"));
+        assertThat(json(validate).path("updatedState").path("cellDrawerUnlocked").asBoolean()).isTrue();
+        assertRoundTrips(validate, 1);
+
+        // The rod turns up on the fifth look around the cell
+        for (int i = 0; i < 5; i++) {
+            assertRoundTrips(send("/api/game/inspect", Map.of("gameSessionId", sessionId, "stage", "CELL")), 1);
+        }
+
+        MvcResult useItem = send("/api/game/use-item", Map.of("gameSessionId", sessionId, "item", "rod"));
+        assertThat(json(useItem).path("inspectionText").asText()).isEqualTo("Item used successfully.");
+        assertRoundTrips(useItem, 1);
+    }
+
+    private MvcResult send(String path, Map<String, Object> body) throws Exception {
+        var request = post(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body));
+        if (token != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        return mockMvc.perform(request).andExpect(status().is2xxSuccessful()).andReturn();
+    }
+
+    private JsonNode json(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private static void assertRoundTrips(MvcResult result, int maxWrites) {
+        assertThat(result.getResponse().getHeader(DbRoundTripHeaderAdvice.READS_HEADER)).isEqualTo("1");
+        assertThat(Integer.parseInt(result.getResponse().getHeader(DbRoundTripHeaderAdvice.WRITES_HEADER)))
+                .isBetween(0, maxWrites);
+    }
+}
@@ -0,0 +1,169 @@
+package com.escaperoom.backend.repo;
+
+import com.escaperoom.backend.config.InlineRunQuestionsMigration;
+import com.escaperoom.backend.config.LegacyGameSessionMigration;
+import com.escaperoom.backend.config.QuestionSequenceMigration;
+import com.escaperoom.backend.config.RoomConfig;
+import com.escaperoom.backend.model.DifficultyLevel;
+import com.escaperoom.backend.model.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository query against the schema built by the Flyway migrations on H2 and checks
+ * the query plan: each must be answered through an index, never by scanning a table. The room is compiled too,
+ * since the inspection counters column is converted by its keys.
+ */
+@DataJpaTest
+@AutoConfigureJson
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RoomConfig.class, LegacyGameSessionMigration.class, InlineRunQuestionsMigration.class, QuestionSequenceMigration.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:indexes;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.escaperoom.backend.repo.QueryIndexUsageTest$LastStatement"
+})
+class QueryIndexUsageTest {
+
+    @Autowired
+    private EscapeRunRepo escapeRunRepo;
+
+    @Autowired
+    private GameSessionRepository gameSessionRepository;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = entityManager.persistFlushFind(User.builder().email("index-" + UUID.randomUUID() + "@test.com").password("x").build());
+        entityManager.clear();
+    }
+
+    @Test
+    void latestRunUsesUserDifficultyFinishedIndex() {
+        addRuns(500);
+        escapeRunRepo.findFirstByUserIdAndDifficultyOrderByFinishedAtDesc(user.getId(), DifficultyLevel.EASY);
+        // H2 costs both (user_id, difficulty) indexes alike; it does not credit finished_at DESC for the ORDER BY
+        assertIndexUsed("idx_escape_runs_user_difficulty_finished", "idx_escape_runs_user_difficulty_time");
+    }
+
+    @Test
+    void bestTimesUseUserDifficultyTimeIndex() {
+        try (var bestTimes = escapeRunRepo.streamBestTimes()) {
+            bestTimes.count();
+        }
+        assertIndexUsed("idx_escape_runs_user_difficulty_time");
+    }
+
+    @Test
+    void sessionsOfUserUseUserLastUpdatedIndex() {
+        gameSessionRepository.findByUserOrderByLastUpdatedDesc(user);
+        assertIndexUsed("idx_game_sessions_user_last_updated", "fk_game_sessions_user");
+
+        gameSessionRepository.findFirstByUserOrderByLastUpdatedDesc(user);
+        assertIndexUsed("idx_game_sessions_user_last_updated", "fk_game_sessions_user");
+    }
+
+    @Test
+    void sessionByIdAndUserUsesPrimaryKey() {
+        gameSessionRepository.findByIdAndUser(1L, user);
+        assertIndexUsed("primary_key");
+    }
+
+    @Test
+    void userByEmailUsesUniqueEmailIndex() {
+        userRepo.findByEmail(user.getEmail());
+        assertIndexUsed("uk_users_email");
+    }
+
+    // On empty tables H2 costs every index on user_id the same; with rows and statistics it prefers the longer key.
+    // ANALYZE commits, so these rows outlive the test; every test makes its own user
+    private void addRuns(int count) {
+        List<Object[]> runs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            runs.add(new Object[]{user.getId(), DifficultyLevel.values()[i % 3].name(), 1000L + i, new byte[0]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO escape_runs (user_id, difficulty, total_time_millis, finished_at, question_ids) "
+                + "VALUES (?, ?, ?, CURRENT_TIMESTAMP, ?)", runs);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    // The alternatives are indexes H2 may pick over the intended one at the same cost; for foreign keys
+    // it backs each with an index of its own, which PostgreSQL does not have
+    private void assertIndexUsed(String index, String... h2Alternatives) {
+        String plan = explain(LastStatement.sql);
+        assertThat(plan)
+                .as("plan of %s", LastStatement.sql)
+                .doesNotContainIgnoringCase("tableScan");
+        assertThat(Stream.concat(Stream.of(index), Stream.of(h2Alternatives)))
+                .as("plan of %s: %s", LastStatement.sql, plan)
+                .anyMatch(name -> plan.toLowerCase().contains(name.toLowerCase()));
+    }
+
+    // EXPLAIN needs every parameter bound; the values do not change which index H2 picks
+    private String explain(String sql) {
+        return jdbcTemplate.execute((java.sql.Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                ParameterMetaData parameters = statement.getParameterMetaData();
+                for (int i = 1; i <= parameters.getParameterCount(); i++) {
+                    statement.setObject(i, sampleValue(parameters.getParameterType(i)));
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1);
+                }
+            }
+        });
+    }
+
+    private Object sampleValue(int sqlType) {
+        return switch (sqlType) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> 1;
+            case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> Instant.now();
+            case Types.OTHER, Types.BINARY -> user.getId();
+            default -> "EASY";
+        };
+    }
+
+    public static class LastStatement implements StatementInspector {
+        static volatile String sql;
+
+        @Override
+        public String inspect(String sql) {
+            LastStatement.sql = sql;
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.escaperoom.backend.service;
+
+import com.escaperoom.backend.service.Leaderboard.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ranks, pages and neighbourhoods of the treap-backed {@link Leaderboard}.
+ */
+class LeaderboardTest {
+
+    private final Leaderboard leaderboard = new Leaderboard();
+
+    @Test
+    void equalTimesRankByWhoGotThereFirst() {
+        UUID fast = UUID.randomUUID();
+        UUID tiedLater = UUID.randomUUID();
+        UUID tiedEarlier = UUID.randomUUID();
+        UUID slow = UUID.randomUUID();
+        leaderboard.offer(slow, 90_000, 1_000);
+        leaderboard.offer(tiedLater, 60_000, 3_000);
+        leaderboard.offer(fast, 30_000, 4_000);
+        leaderboard.offer(tiedEarlier, 60_000, 2_000);
+
+        assertThat(leaderboard.entry(fast).rank()).isEqualTo(1);
+        assertThat(leaderboard.entry(tiedEarlier).rank()).isEqualTo(2);
+        assertThat(leaderboard.entry(tiedLater).rank()).isEqualTo(3);
+        assertThat(leaderboard.entry(slow).rank()).isEqualTo(4);
+        assertThat(leaderboard.range(1, 4)).extracting(Entry::userId).containsExactly(fast, tiedEarlier, tiedLater, slow);
+    }
+
+    @Test
+    void rangeReturnsOnePageFromTheGivenRank() {
+        List<UUID> users = fill(100);
+
+        List<Entry> page = leaderboard.range(41, 10);
+
+        assertThat(page).extracting(Entry::rank).containsExactly(41, 42, 43, 44, 45, 46, 47, 48, 49, 50);
+        assertThat(page).extracting(Entry::userId).containsExactlyElementsOf(users.subList(40, 50));
+        assertThat(page).extracting(Entry::timeMillis).isSorted();
+        assertThat(leaderboard.range(95, 10)).extracting(Entry::rank).containsExactly(95, 96, 97, 98, 99, 100);
+        assertThat(leaderboard.range(101, 10)).isEmpty();
+    }
+
+    @Test
+    void aroundStopsAtBothEndsOfTheBoard() {
+        List<UUID> users = fill(20);
+
+        assertThat(leaderboard.around(users.get(0), 3)).extracting(Entry::rank).containsExactly(1, 2, 3, 4);
+        assertThat(leaderboard.around(users.get(19), 3)).extracting(Entry::rank).containsExactly(17, 18, 19, 20);
+        assertThat(leaderboard.around(users.get(9), 3)).extracting(Entry::userId).containsExactlyElementsOf(users.subList(6, 13));
+        assertThat(leaderboard.around(UUID.randomUUID(), 3)).isEmpty();
+    }
+
+    @Test
+    void improvedTimeMovesTheUserInsteadOfAddingAnEntry() {
+        List<UUID> users = fill(10);
+        UUID improver = users.get(7);
+
+        assertThat(leaderboard.offer(improver, 80_000, 500_000)).isFalse();
+        assertThat(leaderboard.offer(improver, 15_000, 500_000)).isTrue();
+
+        assertThat(leaderboard.size()).isEqualTo(10);
+        assertThat(leaderboard.entry(improver)).isEqualTo(new Entry(2, improver, 15_000, 500_000));
+        assertThat(leaderboard.range(1, 10)).extracting(Entry::userId).containsOnlyOnce(improver);
+        assertThat(leaderboard.range(1, 10)).extracting(Entry::rank).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        // The users it overtook each move down one place
+        assertThat(leaderboard.entry(users.get(1)).rank()).isEqualTo(3);
+        assertThat(leaderboard.entry(users.get(6)).rank()).isEqualTo(8);
+        assertThat(leaderboard.entry(users.get(8)).rank()).isEqualTo(9);
+    }
+
+    // Offers one run per user in random order; the returned users are ordered fastest first, 10s apart
+    private List<UUID> fill(int count) {
+        List<UUID> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(UUID.randomUUID());
+        }
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, new Random(42));
+        for (int i : order) {
+            leaderboard.offer(users.get(i), (i + 1) * 10_000L, i);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,115 @@
+package com.escaperoom.backend.service;
+
+import com.escaperoom.backend.dto.QuestionImportResponse;
+import com.escaperoom.backend.dto.QuestionImportResponse.RowError;
+import com.escaperoom.backend.model.DifficultyLevel;
+import com.escaperoom.backend.model.Question;
+import com.escaperoom.backend.repo.QuestionRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CSV imports on H2: the RFC 4180 reader, header handling, rejected rows, and a chunk the database refuses
+ * being retried row by row.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:imports;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.username=sa",
+        "spring.datasource.password="
+})
+class QuestionImportServiceTest {
+
+    private static final String HEADER = "questionText,answer,hint,orderNumber,difficulty";
+
+    @Autowired
+    private QuestionImportService questionImportService;
+
+    @Autowired
+    private QuestionRepo questionRepo;
+
+    // Marks this test's questions, since the database is shared by the whole class
+    private final String marker = UUID.randomUUID().toString();
+
+    @Test
+    void quotedFieldsKeepCommasQuotesAndLineBreaks() {
+        QuestionImportResponse response = importCsv(HEADER + "\r\n"
+                + "\"" + marker + " where, exactly?\",\"He said \"\"no\"\"\",\"first line\r\nsecond line\",1,easy\r\n"
+                + marker + " plain,yes,,2,HARD\r\n");
+
+        assertThat(response.getErrors()).isEmpty();
+        assertThat(response.getImported()).isEqualTo(2);
+        List<Question> questions = imported();
+        assertThat(questions.get(0).getQuestionText()).isEqualTo(marker + " where, exactly?");
+        assertThat(questions.get(0).getAnswer()).isEqualTo("He said \"no\"");
+        assertThat(questions.get(0).getHint()).isEqualTo("first line\r\nsecond line");
+        assertThat(questions.get(0).getDifficulty()).isEqualTo(DifficultyLevel.EASY);
+        // An empty hint is no hint, and CRLF ends a record without leaving \r in its last field
+        assertThat(questions.get(1).getHint()).isNull();
+        assertThat(questions.get(1).getDifficulty()).isEqualTo(DifficultyLevel.HARD);
+    }
+
+    @Test
+    void headerMayStartWithBomAndLeaveOutHint() {
+        QuestionImportResponse response = importCsv("\uFEFFdifficulty,orderNumber,questionText,answer\n"
+                + "MEDIUM,3," + marker + " reordered,42\n");
+
+        assertThat(response.getErrors()).isEmpty();
+        Question question = imported().get(0);
+        assertThat(question.getAnswer()).isEqualTo("42");
+        assertThat(question.getOrderNumber()).isEqualTo(3);
+        assertThat(question.getHint()).isNull();
+    }
+
+    @Test
+    void rowWithWrongFieldCountIsRejectedAndTheRestImported() {
+        QuestionImportResponse response = importCsv(HEADER + "\n"
+                + marker + " first,a,,1,EASY\n"
+                + marker + " short,a,1,EASY\n"
+                + marker + " third,a,,3,EASY\n");
+
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getErrors()).containsExactly(new RowError(2, "Expected 5 fields but found 4."));
+        assertThat(imported()).extracting(Question::getOrderNumber).containsExactly(1, 3);
+    }
+
+    @Test
+    void chunkRefusedByDatabaseIsRetriedRowByRow() {
+        // Passes validation, but does not fit question_text VARCHAR(255), which fails the whole chunk's flush
+        String tooLong = marker + " " + "x".repeat(300);
+        QuestionImportResponse response = importCsv(HEADER + "\n"
+                + marker + " before,a,,1,EASY\n"
+                + tooLong + ",a,,2,EASY\n"
+                + marker + " after,a,,3,EASY\n");
+
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.row()).isEqualTo(2);
+            assertThat(error.message()).startsWith("Rejected by the database: ");
+        });
+        assertThat(imported()).extracting(Question::getOrderNumber).containsExactly(1, 3);
+    }
+
+    private QuestionImportResponse importCsv(String csv) {
+        return questionImportService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private List<Question> imported() {
+        return questionRepo.findAll().stream()
+                .filter(question -> question.getQuestionText().startsWith(marker))
+                .sorted(Comparator.comparingInt(Question::getOrderNumber))
+                .toList();
+    }
+}
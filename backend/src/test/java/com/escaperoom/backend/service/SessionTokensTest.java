@@ -0,0 +1,83 @@
+package com.escaperoom.backend.service;
+
+import com.escaperoom.backend.config.AuthTokenProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Issuing and verifying {@link SessionTokens}: only an unexpired token signed with the same secret names a user.
+ */
+class SessionTokensTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private final SessionTokens sessionTokens = tokens(SECRET, Duration.ofHours(12));
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void issuedTokenVerifiesToItsUser() {
+        String token = sessionTokens.issue(userId);
+
+        assertThat(sessionTokens.verify(token)).contains(userId);
+        assertThat(sessionTokens.read(token)).contains(new SessionTokens.Claims(userId, false));
+    }
+
+    @Test
+    void tokenSignedWithAnotherSecretIsRejected() {
+        byte[] otherSecret = new byte[32];
+        otherSecret[0] = 1;
+        String forged = tokens(Base64.getEncoder().encodeToString(otherSecret), Duration.ofHours(12)).issue(userId);
+
+        assertThat(sessionTokens.verify(forged)).isEmpty();
+        assertThat(sessionTokens.read(forged)).isEmpty();
+    }
+
+    @Test
+    void payloadSwappedUnderAnotherSignatureIsRejected() {
+        String victim = sessionTokens.issue(UUID.randomUUID());
+        String own = sessionTokens.issue(userId);
+        String spliced = victim.substring(0, victim.indexOf('.')) + own.substring(own.indexOf('.'));
+
+        assertThat(sessionTokens.verify(spliced)).isEmpty();
+    }
+
+    @Test
+    void truncatedPayloadIsRejected() {
+        String token = sessionTokens.issue(userId);
+        int dot = token.indexOf('.');
+        String truncated = token.substring(0, dot - 4) + token.substring(dot);
+
+        assertThat(sessionTokens.verify(truncated)).isEmpty();
+        assertThat(sessionTokens.verify(token.substring(0, dot))).isEmpty();
+    }
+
+    @Test
+    void expiredTokenIsRejectedButStillReadAsGenuine() {
+        String expired = tokens(SECRET, Duration.ofSeconds(-1)).issue(userId);
+
+        assertThat(sessionTokens.verify(expired)).isEmpty();
+        assertThat(sessionTokens.read(expired)).contains(new SessionTokens.Claims(userId, true));
+    }
+
+    @Test
+    void malformedBase64IsRejected() {
+        String token = sessionTokens.issue(userId);
+        int dot = token.indexOf('.');
+
+        assertThat(sessionTokens.verify("not base64!." + token.substring(dot + 1))).isEmpty();
+        assertThat(sessionTokens.verify(token.substring(0, dot) + ".%%%")).isEmpty();
+        assertThat(sessionTokens.verify("")).isEmpty();
+    }
+
+    private static SessionTokens tokens(String secret, Duration ttl) {
+        AuthTokenProperties properties = new AuthTokenProperties();
+        properties.setTokenSecret(secret);
+        properties.setTokenTtl(ttl);
+        return new SessionTokens(properties);
+    }
+}
@@ -0,0 +1,74 @@
+package com.escaperoom.benchmarks;
+
+import com.escaperoom.backend.dto.GameStateDTO;
+import com.escaperoom.backend.model.GameSession;
+import com.escaperoom.backend.model.GameStage;
+import com.escaperoom.backend.model.InspectionCounters;
+import com.escaperoom.backend.model.InspectionCountersConverter;
+import com.escaperoom.backend.model.InspectionKeys;
+import com.escaperoom.backend.model.SessionFlag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the game state response and encoding/decoding the inspection counters column, for
+ * sessions with a few or many inspected areas. The counters codec replaced the JSON
+ * {@code parseInspectionCounts} / {@code serializeInspectionCounts} pair.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+
+    @Param({"2", "32"})
+    private int areas;
+
+    private final InMemoryStubs stubs = new InMemoryStubs();
+    private final InspectionKeys inspectionKeys = stubs.roomEngine.inspectionKeys();
+    private final InspectionCountersConverter converter = new InspectionCountersConverter(inspectionKeys);
+    private GameSession session;
+    private byte[] encodedCounters;
+
+    @Setup
+    public void prepare() {
+        session = InMemoryStubs.session(GameStage.DESK,
+                SessionFlag.CELL_DRAWER_UNLOCKED.mask() | SessionFlag.CELL_DOOR_UNLOCKED.mask() | SessionFlag.HAS_ROD.mask());
+        InspectionCounters counters = session.getInspectionCounts();
+        // As if the room declared that many areas
+        for (int i = 0; i < areas; i++) {
+            String stage = i % 2 == 0 ? "CELL" : "DESK";
+            inspectionKeys.declare(stage, "area" + i);
+            counters.increment(inspectionKeys.key(stage, "area" + i));
+        }
+        encodedCounters = converter.convertToDatabaseColumn(counters);
+    }
+
+    @Benchmark
+    public GameStateDTO convertToDTO() {
+        return stubs.gameSessionService.convertToDTO(session);
+    }
+
+    @Benchmark
+    public byte[] encodeCounters() {
+        return converter.convertToDatabaseColumn(session.getInspectionCounts());
+    }
+
+    @Benchmark
+    public InspectionCounters decodeCounters() {
+        return converter.convertToEntityAttribute(encodedCounters);
+    }
+}
@@ -0,0 +1,112 @@
+package com.escaperoom.benchmarks;
+
+import com.escaperoom.backend.config.RoomConfig;
+import com.escaperoom.backend.model.GameSession;
+import com.escaperoom.backend.model.GameStage;
+import com.escaperoom.backend.repo.GameSessionRepository;
+import com.escaperoom.backend.repo.UserRepo;
+import com.escaperoom.backend.service.GameSessionService;
+import com.escaperoom.backend.service.GameSessionStore;
+import com.escaperoom.backend.service.InspectionService;
+import com.escaperoom.backend.service.ItemUsageService;
+import com.escaperoom.backend.service.LockValidationService;
+import com.escaperoom.backend.service.RoomEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wires the game services without Spring or a database. Repositories are dynamic proxies over a map
+ * that understand {@code save}, {@code saveAll} and {@code findById}; every other call returns an
+ * empty value. The game-logic hot paths never reach them, they only need something to be injected.
+ */
+final class InMemoryStubs {
+
+    final GameSessionRepository gameSessionRepository = repository(GameSessionRepository.class);
+    final UserRepo userRepo = repository(UserRepo.class);
+    final GameSessionStore gameSessionStore = new GameSessionStore(
+            gameSessionRepository, repository(PlatformTransactionManager.class), false, 10_000, 100);
+    final RoomEngine roomEngine = loadRoom();
+    final GameSessionService gameSessionService =
+            new GameSessionService(gameSessionRepository, userRepo, gameSessionStore, roomEngine);
+    final ItemUsageService itemUsageService = new ItemUsageService(roomEngine);
+    final InspectionService inspectionService = new InspectionService(gameSessionService, roomEngine, null);
+    final InspectionService seededInspectionService = new InspectionService(gameSessionService, roomEngine, 42L);
+    final LockValidationService lockValidationService = new LockValidationService(roomEngine);
+
+    static GameSession session(GameStage stage, long stateFlags) {
+        return GameSession.builder()
+                .id(1L)
+                .stage(stage)
+                .stateFlags(stateFlags)
+                .build();
+    }
+
+    // The same room definition and texts the backend compiles at startup
+    private static RoomEngine loadRoom() {
+        try {
+            return new RoomConfig().roomEngine(new ObjectMapper(),
+                    new ClassPathResource("rooms/prison.json"),
+                    new Resource[]{new ClassPathResource("rooms/prison_fr.json")});
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type) {
+        Map<Object, Object> rows = new ConcurrentHashMap<>();
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "save" -> {
+                        rows.put(id(args[0]), args[0]);
+                        yield args[0];
+                    }
+                    case "saveAll" -> {
+                        for (Object entity : (Iterable<?>) args[0]) {
+                            rows.put(id(entity), entity);
+                        }
+                        yield args[0];
+                    }
+                    case "findById" -> Optional.ofNullable(rows.get(args[0]));
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemory" + type.getSimpleName();
+                    default -> emptyValue(method);
+                });
+    }
+
+    private static Object id(Object entity) throws ReflectiveOperationException {
+        return entity.getClass().getMethod("getId").invoke(entity);
+    }
+
+    private static Object emptyValue(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == Optional.class) {
+            return Optional.empty();
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return java.util.List.of();
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        return null;
+    }
+}
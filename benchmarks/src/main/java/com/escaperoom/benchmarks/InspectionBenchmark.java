@@ -0,0 +1,61 @@
+package com.escaperoom.benchmarks;
+
+import com.escaperoom.backend.model.GameSession;
+import com.escaperoom.backend.model.GameStage;
+import com.escaperoom.backend.model.SessionFlag;
+import com.escaperoom.backend.service.InspectionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code InspectionService.getInspectionText} for both stages. The session is reset every iteration,
+ * so each iteration walks the flavour-text and hint branches before settling on the default texts.
+ * Text selection itself should not allocate, whether random or seeded and in either language.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InspectionBenchmark {
+
+    @Param({"CELL", "DESK"})
+    private String stage;
+
+    @Param({"en", "fr"})
+    private String language;
+
+    @Param({"false", "true"})
+    private boolean seeded;
+
+    private final InMemoryStubs stubs = new InMemoryStubs();
+    private GameSession session;
+    private Locale locale;
+    private InspectionService inspectionService;
+
+    @Setup(Level.Iteration)
+    public void resetSession() {
+        session = InMemoryStubs.session(GameStage.valueOf(stage), SessionFlag.CELL_DRAWER_UNLOCKED.mask());
+        locale = Locale.forLanguageTag(language);
+        inspectionService = seeded ? stubs.seededInspectionService : stubs.inspectionService;
+    }
+
+    @Benchmark
+    public String getInspectionText() {
+        return inspectionService.getInspectionText(session, stage, "scene", locale);
+    }
+}
@@ -0,0 +1,57 @@
+package com.escaperoom.benchmarks;
+
+import com.escaperoom.backend.model.GameSession;
+import com.escaperoom.backend.model.GameStage;
+import com.escaperoom.backend.model.SessionFlag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ItemUsageService.useItem} for the rod (which retrieves the desk key) and the desk key.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemUsageBenchmark {
+
+    @Param({"rod", "deskKey"})
+    private String item;
+
+    private final InMemoryStubs stubs = new InMemoryStubs();
+    private GameSession session;
+    private GameStage stage;
+    private long stateFlags;
+
+    @Setup
+    public void prepare() {
+        if ("rod".equals(item)) {
+            stage = GameStage.CELL;
+            stateFlags = SessionFlag.CELL_DRAWER_UNLOCKED.mask() | SessionFlag.HAS_ROD.mask();
+        } else {
+            stage = GameStage.DESK;
+            stateFlags = SessionFlag.HAS_DESK_KEY.mask();
+        }
+        session = InMemoryStubs.session(stage, stateFlags);
+    }
+
+    @Benchmark
+    public boolean useItem() {
+        session.setStage(stage);
+        session.setStateFlags(stateFlags);
+        return stubs.itemUsageService.useItem(session, item, "desk");
+    }
+}
@@ -0,0 +1,72 @@
+package com.escaperoom.benchmarks;
+
+import com.escaperoom.backend.model.GameSession;
+import com.escaperoom.backend.model.GameStage;
+import com.escaperoom.backend.model.SessionFlag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The four lock validations, each with its prerequisites met. Correct answers move the session on
+ * (e.g. to ESCAPED), so the stage and flags are put back before every call; that reset is two field
+ * writes and does not show up next to the validation itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LockValidationBenchmark {
+
+    @Param({"cell-drawer", "cell-door", "desk-drawer", "final-door"})
+    private String lockType;
+
+    @Param({"true", "false"})
+    private boolean correct;
+
+    private final InMemoryStubs stubs = new InMemoryStubs();
+    private GameSession session;
+    private GameStage stage;
+    private long stateFlags;
+    private String answer;
+
+    @Setup
+    public void prepare() {
+        switch (lockType) {
+            case "cell-drawer" -> prepare(GameStage.CELL, 0L, "1247");
+            case "cell-door" -> prepare(GameStage.CELL, SessionFlag.CELL_DRAWER_UNLOCKED.mask(), "3589");
+            case "desk-drawer" -> prepare(GameStage.DESK, SessionFlag.CELL_DOOR_UNLOCKED.mask(), "4729");
+            case "final-door" -> prepare(GameStage.DESK, SessionFlag.DESK_DRAWER_UNLOCKED.mask(), "8264");
+            default -> throw new IllegalArgumentException("Unknown lock type: " + lockType);
+        }
+        if (!correct) {
+            answer = "0000";
+        }
+        session = InMemoryStubs.session(stage, stateFlags);
+    }
+
+    private void prepare(GameStage stage, long stateFlags, String answer) {
+        this.stage = stage;
+        this.stateFlags = stateFlags;
+        this.answer = answer;
+    }
+
+    @Benchmark
+    public boolean validate() {
+        session.setStage(stage);
+        session.setStateFlags(stateFlags);
+        return stubs.lockValidationService.validate(lockType, session, answer);
+    }
+}
@@ -5,6 +5,7 @@ import LoginPage from "./components/LoginPage";
 import CreateAccPage from "./components/CreateAccPage";
 import GamePage from "./components/GamePage";
 import { text } from "./constants/text";
+import { authAPI } from "./services/api";
 import "./App.css";
 
 function App() {
@@ -66,6 +67,16 @@ function App() {
     }
   }, [currentUser]);
 
+  // The stored token expired or was rejected: forget the login and ask for it again
+  useEffect(() => {
+    authAPI.onSessionExpired(() => {
+      setIsAuthenticated(false);
+      setCurrentUser(null);
+      navigate("/login");
+    });
+    return () => authAPI.onSessionExpired(null);
+  }, [navigate]);
+
   const handleLoginSuccess = (userProfile) => {
     setIsAuthenticated(true);
     setCurrentUser(userProfile ?? null);
@@ -73,6 +84,7 @@ function App() {
   };
 
   const handleLogout = () => {
+    authAPI.logout();
     setIsAuthenticated(false);
     setCurrentUser(null);
     navigate("/");
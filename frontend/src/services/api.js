@@ -1,5 +1,35 @@
 const API_BASE_URL = 'http://localhost:8080/api';
 const DIFFICULTIES = ['EASY', 'MEDIUM', 'HARD'];
+const TOKEN_HEADER = 'X-Auth-Token';
+const TOKEN_STORAGE_KEY = 'authToken';
+
+// Login and account creation hand out a session token; later calls send it back as a bearer token
+const rememberToken = (response) => {
+  const token = response.headers.get(TOKEN_HEADER);
+  if (token) {
+    localStorage.setItem(TOKEN_STORAGE_KEY, token);
+  }
+};
+
+const authHeaders = (headers = {}) => {
+  const token = localStorage.getItem(TOKEN_STORAGE_KEY);
+  return token ? { ...headers, Authorization: `Bearer ${token}` } : headers;
+};
+
+let sessionExpiredHandler = () => {};
+
+// A 401 means the stored token has expired or is no longer accepted: drop it and send the player back to log in
+const authFetch = async (url, options = {}) => {
+  const response = await fetch(url, {
+    ...options,
+    headers: authHeaders(options.headers),
+  });
+  if (response.status === 401) {
+    localStorage.removeItem(TOKEN_STORAGE_KEY);
+    sessionExpiredHandler();
+  }
+  return response;
+};
 
 // Auth API calls
 export const authAPI = {
@@ -9,6 +39,7 @@ export const authAPI = {
       headers: { 'Content-Type': 'application/json' },
       body: JSON.stringify({ email, password }),
     });
+    rememberToken(response);
     return response.json();
   },
 
@@ -18,9 +49,18 @@ export const authAPI = {
       headers: { 'Content-Type': 'application/json' },
       body: JSON.stringify({ email, password }),
     });
+    rememberToken(response);
     return response.ok;
   },
 
+  logout: () => {
+    localStorage.removeItem(TOKEN_STORAGE_KEY);
+  },
+
+  onSessionExpired: (handler) => {
+    sessionExpiredHandler = handler ?? (() => {});
+  },
+
   getUserByEmail: async (email) => {
     const response = await fetch(
       `${API_BASE_URL}/auth/user?email=${encodeURIComponent(email)}`
@@ -116,7 +156,7 @@ export const escapeRunAPI = {
 
     const responses = await Promise.all(
       DIFFICULTIES.map(async (difficulty) => {
-        const response = await fetch(
+        const response = await authFetch(
           `${API_BASE_URL}/runs/latest?userId=${encodeURIComponent(
             userId
           )}&difficulty=${difficulty}`
@@ -161,7 +201,7 @@ export const escapeRunAPI = {
 // Escape Room Game API
 export const escapeRoomGameAPI = {
   startGameSession: async (userId) => {
-    const response = await fetch(`${API_BASE_URL}/game/session/start`, {
+    const response = await authFetch(`${API_BASE_URL}/game/session/start`, {
       method: 'POST',
       headers: { 'Content-Type': 'application/json' },
       body: JSON.stringify({ userId, difficulty: null }),
@@ -175,7 +215,7 @@ export const escapeRoomGameAPI = {
   },
 
   getGameSession: async (sessionId, userId) => {
-    const response = await fetch(
+    const response = await authFetch(
       `${API_BASE_URL}/game/session/${sessionId}?userId=${encodeURIComponent(userId)}`
     );
     
@@ -191,7 +231,7 @@ export const escapeRoomGameAPI = {
   },
 
   getLatestGameSession: async (userId) => {
-    const response = await fetch(
+    const response = await authFetch(
       `${API_BASE_URL}/game/session/latest?userId=${encodeURIComponent(userId)}`
     );
     
@@ -207,7 +247,7 @@ export const escapeRoomGameAPI = {
   },
 
   inspectScene: async (gameSessionId, stage, inspectionArea = null) => {
-    const response = await fetch(`${API_BASE_URL}/game/inspect`, {
+    const response = await authFetch(`${API_BASE_URL}/game/inspect`, {
       method: 'POST',
       headers: { 'Content-Type': 'application/json' },
       body: JSON.stringify({
@@ -225,7 +265,7 @@ export const escapeRoomGameAPI = {
   },
 
   validateLock: async (lockType, gameSessionId, answer) => {
-    const response = await fetch(`${API_BASE_URL}/game/validate/${lockType}`, {
+    const response = await authFetch(`${API_BASE_URL}/game/validate/${lockType}`, {
       method: 'POST',
       headers: { 'Content-Type': 'application/json' },
       body: JSON.stringify({
@@ -242,7 +282,7 @@ export const escapeRoomGameAPI = {
   },
 
   useItem: async (gameSessionId, item, target = null) => {
-    const response = await fetch(`${API_BASE_URL}/game/use-item`, {
+    const response = await authFetch(`${API_BASE_URL}/game/use-item`, {
       method: 'POST',
       headers: { 'Content-Type': 'application/json' },
       body: JSON.stringify({
@@ -260,7 +300,7 @@ export const escapeRoomGameAPI = {
   },
 
   transitionStage: async (gameSessionId, targetStage) => {
-    const response = await fetch(
+    const response = await authFetch(
       `${API_BASE_URL}/game/transition?gameSessionId=${gameSessionId}&targetStage=${targetStage}`,
       {
         method: 'POST',
@@ -0,0 +1,59 @@
+package com.escaperoom.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Thin JSON client for the backend API that times every call into {@link LatencyStats} under a
+ * fixed endpoint label (path variables are not part of the label).
+ */
+final class GameClient {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final LatencyStats stats;
+
+    GameClient(HttpClient http, String baseUrl, LatencyStats stats) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.stats = stats;
+    }
+
+    JsonNode get(String label, String path) throws IOException, InterruptedException {
+        return send(label, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build());
+    }
+
+    JsonNode post(String label, String path, Object body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+                .build();
+        return send(label, request);
+    }
+
+    private JsonNode send(String label, HttpRequest request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            stats.record(label, System.nanoTime() - start, true);
+            throw e;
+        }
+        boolean failed = response.statusCode() >= 400;
+        stats.record(label, System.nanoTime() - start, failed);
+        if (failed) {
+            throw new IOException(label + " returned " + response.statusCode());
+        }
+        String body = response.body();
+        return body == null || body.isEmpty() ? MAPPER.nullNode() : MAPPER.readTree(body);
+    }
+}
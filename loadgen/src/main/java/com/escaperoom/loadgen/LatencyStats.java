@@ -0,0 +1,75 @@
+package com.escaperoom.loadgen;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms (microseconds, up to one minute, three significant digits) and error counts.
+ */
+final class LatencyStats {
+
+    private static final long MAX_TRACKABLE_MICROS = 60_000_000L;
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, boolean failed) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        stats.histogram.recordValue(Math.min(MAX_TRACKABLE_MICROS, Math.max(1, nanos / 1_000)));
+        if (failed) {
+            stats.errors.increment();
+        }
+    }
+
+    void printSummary(PrintStream out, double elapsedSeconds) {
+        out.printf("%-32s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram total = new Histogram(MAX_TRACKABLE_MICROS, 3);
+        long totalErrors = 0;
+        for (Map.Entry<String, Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+            Histogram histogram = entry.getValue().histogram.copy();
+            long errors = entry.getValue().errors.sum();
+            printLine(out, entry.getKey(), histogram, errors, elapsedSeconds);
+            total.add(histogram);
+            totalErrors += errors;
+        }
+        printLine(out, "all", total, totalErrors, elapsedSeconds);
+    }
+
+    void writeHistograms(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            String fileName = entry.getKey().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(fileName)))) {
+                // Values are recorded in microseconds; scale the distribution to milliseconds
+                entry.getValue().histogram.copy().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static void printLine(PrintStream out, String name, Histogram histogram, long errors, double elapsedSeconds) {
+        out.printf("%-32s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name,
+                histogram.getTotalCount(),
+                errors,
+                histogram.getTotalCount() / elapsedSeconds,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static final class Endpoint {
+        private final ConcurrentHistogram histogram = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
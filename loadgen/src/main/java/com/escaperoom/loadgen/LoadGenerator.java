@@ -0,0 +1,131 @@
+package com.escaperoom.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives N concurrent simulated players (one virtual thread each) through full playthroughs against a
+ * running backend, then prints per-endpoint throughput and latency percentiles and writes the full
+ * latency histograms as HdrHistogram {@code .hgrm} files.
+ *
+ * The backend only has to be reachable; start it on the embedded database with the {@code embedded}
+ * profile to run without PostgreSQL. Six questions of the requested difficulty are created if the
+ * database does not have them, since every submitted run needs them.
+ */
+public final class LoadGenerator {
+
+    private static final int QUESTIONS_PER_RUN = 6;
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (List.of(args).contains("--help")) {
+            System.out.print(LoadOptions.USAGE);
+            return;
+        }
+        LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        GameClient setup = new GameClient(http, options.baseUrl(), new LatencyStats());
+        awaitBackend(setup);
+        List<Long> questionIds = ensureQuestions(setup, options.difficulty());
+
+        LatencyStats stats = new LatencyStats();
+        GameClient client = new GameClient(http, options.baseUrl(), stats);
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        System.out.printf("Running %d player(s) x %d playthrough(s) against %s (think time %d ms, wrong answers %.0f%%)%n",
+                options.players(), options.playthroughs(), options.baseUrl(),
+                options.thinkTimeMillis(), options.wrongAnswerRate() * 100);
+        long start = System.nanoTime();
+        try (ExecutorService players = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int player = 0; player < options.players(); player++) {
+                Playthrough playthrough = new Playthrough(client, options, questionIds, player);
+                players.submit(() -> runPlayer(playthrough, options.playthroughs(), completed, failed));
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%nPlaythroughs: %d completed, %d failed in %.1f s (%.2f playthroughs/s)%n%n",
+                completed.get(), failed.get(), elapsedSeconds, completed.get() / elapsedSeconds);
+        stats.printSummary(System.out, elapsedSeconds);
+        stats.writeHistograms(options.outputDir());
+        System.out.printf("%nLatency histograms written to %s%n", options.outputDir().toAbsolutePath());
+
+        if (failed.get() > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void runPlayer(Playthrough playthrough, int playthroughs, AtomicInteger completed, AtomicInteger failed) {
+        try {
+            String userId = playthrough.createAccount();
+            for (int i = 0; i < playthroughs; i++) {
+                try {
+                    playthrough.play(userId);
+                    completed.incrementAndGet();
+                } catch (IOException | IllegalStateException e) {
+                    failed.incrementAndGet();
+                    System.err.println("Playthrough failed: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            failed.addAndGet(playthroughs);
+            System.err.println("Could not create player: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitBackend(GameClient client) throws InterruptedException {
+        for (int attempt = 0; attempt < 60; attempt++) {
+            try {
+                client.get("setup", "/question/questions");
+                return;
+            } catch (IOException e) {
+                Thread.sleep(1000);
+            }
+        }
+        throw new IllegalStateException("Backend did not come up");
+    }
+
+    private static List<Long> ensureQuestions(GameClient client, String difficulty) throws IOException, InterruptedException {
+        List<Long> ids = new ArrayList<>(QUESTIONS_PER_RUN);
+        for (JsonNode question : client.get("setup", "/question/questions")) {
+            if (difficulty.equals(question.path("difficulty").asText()) && ids.size() < QUESTIONS_PER_RUN) {
+                ids.add(question.path("id").asLong());
+            }
+        }
+        while (ids.size() < QUESTIONS_PER_RUN) {
+            int number = ids.size() + 1;
+            ids.add(client.post("setup", "/question/add-question", Map.of(
+                    "questionText", "Load test question " + number,
+                    "answer", "answer " + number,
+                    "orderNumber", number,
+                    "difficulty", difficulty)).asLong());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,60 @@
+package com.escaperoom.loadgen;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code --name=value}.
+ */
+record LoadOptions(
+        String baseUrl,
+        int players,
+        int playthroughs,
+        long thinkTimeMillis,
+        double wrongAnswerRate,
+        long seed,
+        String difficulty,
+        Path outputDir) {
+
+    static final String USAGE = """
+            Usage: java -jar loadgen.jar [--name=value ...]
+              --base-url=http://localhost:8080/api   backend API root
+              --players=50                           concurrent simulated players
+              --playthroughs=1                       full playthroughs per player
+              --think-time-ms=250                    mean pause between a player's requests (exponential)
+              --wrong-answer-rate=0.2                chance of a wrong lock answer before each correct one
+              --seed=42                              seed for think times and wrong answers
+              --difficulty=EASY                      difficulty of the submitted runs
+              --output-dir=target/loadgen            where the per-endpoint .hgrm histograms are written
+            """;
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Unrecognised argument: " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LoadOptions options = new LoadOptions(
+                values.getOrDefault("base-url", "http://localhost:8080/api"),
+                Integer.parseInt(values.getOrDefault("players", "50")),
+                Integer.parseInt(values.getOrDefault("playthroughs", "1")),
+                Long.parseLong(values.getOrDefault("think-time-ms", "250")),
+                Double.parseDouble(values.getOrDefault("wrong-answer-rate", "0.2")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                values.getOrDefault("difficulty", "EASY"),
+                Path.of(values.getOrDefault("output-dir", "target/loadgen")));
+
+        if (options.players() < 1 || options.playthroughs() < 1) {
+            throw new IllegalArgumentException("players and playthroughs must be at least 1");
+        }
+        if (options.wrongAnswerRate() < 0 || options.wrongAnswerRate() >= 1) {
+            throw new IllegalArgumentException("wrong-answer-rate must be in [0, 1)");
+        }
+        return options;
+    }
+}
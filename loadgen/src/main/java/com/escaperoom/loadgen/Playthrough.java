@@ -0,0 +1,102 @@
+package com.escaperoom.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * One simulated player: creates an account and then plays CELL -> DESK -> ESCAPED the way the
+ * frontend does, pausing for a random think time between requests and sometimes entering a wrong
+ * code first. Every finished playthrough is submitted as a run.
+ */
+final class Playthrough {
+
+    private static final String WRONG_ANSWER = "0000";
+
+    private final GameClient client;
+    private final LoadOptions options;
+    private final List<Long> questionIds;
+    private final Random random;
+    private final int player;
+
+    Playthrough(GameClient client, LoadOptions options, List<Long> questionIds, int player) {
+        this.client = client;
+        this.options = options;
+        this.questionIds = questionIds;
+        this.random = new Random(options.seed() + player);
+        this.player = player;
+    }
+
+    String createAccount() throws IOException, InterruptedException {
+        String email = "loadgen-" + options.seed() + "-" + player + "-" + System.nanoTime() + "@example.com";
+        return client.post("POST /auth/create-account", "/auth/create-account",
+                Map.of("email", email, "password", "loadgen")).asText();
+    }
+
+    void play(String userId) throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        long sessionId = client.post("POST /game/session/start", "/game/session/start",
+                Map.of("userId", userId)).get("gameSessionId").asLong();
+
+        unlock(sessionId, "cell-drawer", "1247");
+        JsonNode state = null;
+        for (int i = 0; i < 5; i++) {
+            think();
+            state = client.post("POST /game/inspect", "/game/inspect",
+                    Map.of("gameSessionId", sessionId, "stage", "CELL")).get("updatedState");
+        }
+        expect(state.path("hasRod").asBoolean(), "rod not found after searching the drawer");
+
+        think();
+        state = client.post("POST /game/use-item", "/game/use-item",
+                Map.of("gameSessionId", sessionId, "item", "rod")).get("updatedState");
+        expect(state.path("hasDeskKey").asBoolean(), "rod did not retrieve the desk key");
+
+        expect("DESK".equals(unlock(sessionId, "cell-door", "3589").path("currentStage").asText()),
+                "cell door did not lead to the desk");
+        think();
+        client.post("POST /game/inspect", "/game/inspect",
+                Map.of("gameSessionId", sessionId, "stage", "DESK", "inspectionArea", "desk"));
+        unlock(sessionId, "desk-drawer", "4729");
+        expect("ESCAPED".equals(unlock(sessionId, "final-door", "8264").path("currentStage").asText()),
+                "final door did not lead out");
+
+        think();
+        client.post("POST /runs", "/runs", Map.of(
+                "userId", userId,
+                "difficulty", options.difficulty(),
+                "questionIds", questionIds,
+                "totalTimeMillis", Math.max(1, System.currentTimeMillis() - start)));
+    }
+
+    // Optionally fumbles the code a few times, then enters the right one; returns the resulting state
+    private JsonNode unlock(long sessionId, String lockType, String code) throws IOException, InterruptedException {
+        String label = "POST /game/validate/" + lockType;
+        String path = "/game/validate/" + lockType;
+        while (random.nextDouble() < options.wrongAnswerRate()) {
+            think();
+            JsonNode wrong = client.post(label, path, Map.of("gameSessionId", sessionId, "answer", WRONG_ANSWER));
+            expect(!wrong.path("correct").asBoolean(), lockType + " accepted a wrong code");
+        }
+        think();
+        JsonNode response = client.post(label, path, Map.of("gameSessionId", sessionId, "answer", code));
+        expect(response.path("correct").asBoolean(), lockType + " rejected the right code");
+        return response.get("updatedState");
+    }
+
+    private void think() throws InterruptedException {
+        if (options.thinkTimeMillis() > 0) {
+            // Exponentially distributed around the configured mean, like independent clicks
+            Thread.sleep((long) (-options.thinkTimeMillis() * Math.log(1 - random.nextDouble())));
+        }
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}